@@ -0,0 +1,252 @@
+package com.topsoft.search.solr.schedule;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.Iterables;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.joda.time.LocalDateTime;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+import static com.google.common.base.Preconditions.*;
+
+/**
+ * <p>cron表达式，解析时将每个字段预先展开为 {@link BitSet}，计算下一次执行时间时按字段逐级跳到下一个匹配值。
+ * <p>支持5个字段 {@code 分 时 日 月 周} 或6个字段 {@code 秒 分 时 日 月 周}，5个字段时秒固定为0。
+ * 每个字段支持 {@code *}、{@code ?}、{@code 1,3,5}、{@code 1-5}、{@code *}{@code /5}、{@code 10-30/5}、{@code 5/15}，
+ * 月支持 {@code JAN}-{@code DEC}，周支持 {@code SUN}-{@code SAT} 以及 {@code 0}-{@code 7}(0和7都表示周日)。
+ * 日和周都有限定时满足其一即可，与unix cron相同。
+ * <p>按指定时区的本地时间计算，夏令时跳过的时间不会执行，重复的时间只执行一次。
+ * <pre>
+ * 0 0 3 * * ?        每天3:00
+ * 0 *&#47;5 * * * ?     每5分钟
+ * 0 30 2 ? * SAT,SUN 周六、周日2:30
+ * </pre>
+ *
+ * @author wangyg
+ */
+public class CronExpression {
+  private static final List<String> MONTH_NAMES = Arrays.asList(
+      "JAN", "FEB", "MAR", "APR", "MAY", "JUN", "JUL", "AUG", "SEP", "OCT", "NOV", "DEC");
+  private static final List<String> DAY_NAMES = Arrays.asList("SUN", "MON", "TUE", "WED", "THU", "FRI", "SAT");
+  // 2月29日等较少出现的日期最多间隔8年(例如2096年之后的2104年)
+  private static final int MAX_SEARCH_YEARS = 8;
+
+  private final String expression;
+  private final DateTimeZone zone;
+  private final BitSet seconds;
+  private final BitSet minutes;
+  private final BitSet hours;
+  private final BitSet daysOfMonth;
+  private final BitSet months;
+  private final BitSet daysOfWeek;
+  private final boolean daysOfMonthRestricted;
+  private final boolean daysOfWeekRestricted;
+
+  private CronExpression(String expression, DateTimeZone zone) {
+    this.expression = checkNotNull(expression, "expression must not be null!").trim();
+    this.zone = checkNotNull(zone, "zone must not be null!");
+
+    String[] fields = Iterables.toArray(Splitter.on(' ').omitEmptyStrings().split(this.expression), String.class);
+    checkArgument(fields.length == 5 || fields.length == 6,
+        "Cron expression '%s' must consist of 5 or 6 fields!", expression);
+
+    int i = 0;
+    this.seconds = fields.length == 6 ? parseField(fields[i++], 0, 59, null, false) : single(0);
+    this.minutes = parseField(fields[i++], 0, 59, null, false);
+    this.hours = parseField(fields[i++], 0, 23, null, false);
+    this.daysOfMonthRestricted = isRestricted(fields[i]);
+    this.daysOfMonth = parseField(fields[i++], 1, 31, null, true);
+    this.months = parseField(fields[i++], 1, 12, MONTH_NAMES, false);
+    this.daysOfWeekRestricted = isRestricted(fields[i]);
+    this.daysOfWeek = parseField(fields[i], 0, 7, DAY_NAMES, true);
+    if (daysOfWeek.get(7)) {
+      daysOfWeek.set(0);
+      daysOfWeek.clear(7);
+    }
+  }
+
+  /**
+   * 使用系统默认时区
+   *
+   * @throws IllegalArgumentException 表达式格式错误
+   */
+  public static CronExpression parse(String expression) {
+    return parse(expression, DateTimeZone.getDefault());
+  }
+
+  /**
+   * @throws IllegalArgumentException 表达式格式错误
+   */
+  public static CronExpression parse(String expression, DateTimeZone zone) {
+    return new CronExpression(expression, zone);
+  }
+
+  /**
+   * 计算晚于指定时间的下一次执行时间
+   *
+   * @param after 起始时间(不包含)
+   * @return 下一次执行时间，没有满足条件的时间(例如 {@code 0 0 0 30 2 ?})时返回 {@code null}
+   */
+  @Nullable
+  public Date next(Date after) {
+    DateTime afterTime = new DateTime(checkNotNull(after), zone);
+    LocalDateTime time = afterTime.toLocalDateTime().withMillisOfSecond(0).plusSeconds(1);
+    int maxYear = time.getYear() + MAX_SEARCH_YEARS;
+
+    for (time = nextLocal(time, maxYear); time != null; time = nextLocal(time.plusSeconds(1), maxYear)) {
+      if (zone.isLocalDateTimeGap(time)) {
+        continue;
+      }
+
+      DateTime fireTime = time.toDateTime(zone);
+      if (fireTime.isAfter(afterTime)) {
+        return fireTime.toDate();
+      }
+    }
+    return null;
+  }
+
+  public String getExpression() {
+    return expression;
+  }
+
+  public DateTimeZone getZone() {
+    return zone;
+  }
+
+  @Override
+  public String toString() {
+    return expression;
+  }
+
+  private LocalDateTime nextLocal(LocalDateTime time, int maxYear) {
+    while (time.getYear() <= maxYear) {
+      int month = months.nextSetBit(time.getMonthOfYear());
+      if (month < 0) {
+        time = new LocalDateTime(time.getYear() + 1, 1, 1, 0, 0, 0);
+        continue;
+      }
+      if (month != time.getMonthOfYear()) {
+        time = new LocalDateTime(time.getYear(), month, 1, 0, 0, 0);
+        continue;
+      }
+
+      if (!matchesDay(time)) {
+        time = nextDay(time);
+        continue;
+      }
+
+      int hour = hours.nextSetBit(time.getHourOfDay());
+      if (hour < 0) {
+        time = nextDay(time);
+        continue;
+      }
+      if (hour != time.getHourOfDay()) {
+        time = time.withTime(hour, 0, 0, 0);
+        continue;
+      }
+
+      int minute = minutes.nextSetBit(time.getMinuteOfHour());
+      if (minute < 0) {
+        time = time.withTime(hour, 0, 0, 0).plusHours(1);
+        continue;
+      }
+      if (minute != time.getMinuteOfHour()) {
+        time = time.withTime(hour, minute, 0, 0);
+        continue;
+      }
+
+      int second = seconds.nextSetBit(time.getSecondOfMinute());
+      if (second < 0) {
+        time = time.withTime(hour, minute, 0, 0).plusMinutes(1);
+        continue;
+      }
+      return time.withSecondOfMinute(second);
+    }
+    return null;
+  }
+
+  private boolean matchesDay(LocalDateTime time) {
+    boolean dayOfMonth = daysOfMonth.get(time.getDayOfMonth());
+    // joda中周日为7
+    boolean dayOfWeek = daysOfWeek.get(time.getDayOfWeek() % 7);
+
+    if (daysOfMonthRestricted && daysOfWeekRestricted) {
+      return dayOfMonth || dayOfWeek;
+    }
+    return dayOfMonth && dayOfWeek;
+  }
+
+  private static LocalDateTime nextDay(LocalDateTime time) {
+    return time.withTime(0, 0, 0, 0).plusDays(1);
+  }
+
+  private static boolean isRestricted(String field) {
+    return !"*".equals(field) && !"?".equals(field);
+  }
+
+  private static BitSet single(int value) {
+    BitSet bits = new BitSet(value + 1);
+    bits.set(value);
+    return bits;
+  }
+
+  private static BitSet parseField(String field, int min, int max, @Nullable List<String> names, boolean allowAny) {
+    BitSet bits = new BitSet(max + 1);
+
+    for (String part : Splitter.on(',').split(field)) {
+      int step = 1;
+      int slash = part.indexOf('/');
+      String range = part;
+      if (slash >= 0) {
+        step = parseValue(part.substring(slash + 1), null, field);
+        checkArgument(step > 0, "The step of cron field '%s' must be greater than zero!", field);
+        range = part.substring(0, slash);
+      }
+
+      int from, to;
+      if ("*".equals(range) || (allowAny && "?".equals(range))) {
+        from = min;
+        to = max;
+      } else {
+        int dash = range.indexOf('-');
+        if (dash >= 0) {
+          from = parseValue(range.substring(0, dash), names, field);
+          to = parseValue(range.substring(dash + 1), names, field);
+        } else {
+          from = parseValue(range, names, field);
+          to = slash >= 0 ? max : from;
+        }
+      }
+
+      checkArgument(from >= min && to <= max && from <= to,
+          "The cron field '%s' must be in range %s-%s!", field, min, max);
+      for (int i = from; i <= to; i += step) {
+        bits.set(i);
+      }
+    }
+    return bits;
+  }
+
+  private static int parseValue(String value, @Nullable List<String> names, String field) {
+    if (names != null) {
+      int index = names.indexOf(value.toUpperCase(Locale.US));
+      if (index >= 0) {
+        // 月份从1开始，周从0(SUN)开始
+        return names == MONTH_NAMES ? index + 1 : index;
+      }
+    }
+
+    try {
+      return Integer.parseInt(value);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException(String.format("Illegal value '%s' in cron field '%s'!", value, field), e);
+    }
+  }
+}
@@ -0,0 +1,83 @@
+package com.topsoft.search.solr.schedule;
+
+import com.google.common.base.Strings;
+
+import javax.annotation.Nullable;
+import java.util.Date;
+
+import static com.google.common.base.Preconditions.*;
+
+/**
+ * 按 {@link CronExpression} 执行的 {@link Trigger}，每次执行结束后重新计算下一次执行时间，
+ * 不会因夏令时或长时间运行而产生偏差。上一次执行超过下一个时间点时跳过错过的时间点，
+ * 落在暂停时段内的时间点推迟到暂停结束后第一个满足表达式的时间点。
+ *
+ * @author wangyg
+ */
+class CronTrigger implements Trigger {
+  // 连续跳过暂停时段的最大次数，超过后认为不会再执行
+  private static final int MAX_SUSPENSION_SKIPS = 1000;
+  private final String name;
+  private final CronExpression expression;
+  private final Suspension suspension;
+
+  CronTrigger(String name, CronExpression expression, @Nullable Suspension suspension) {
+    this.expression = checkNotNull(expression, "expression must not be null!");
+    this.name = Strings.isNullOrEmpty(name) ? CronTrigger.class.getName() + "[" + expression + "]" : name;
+    this.suspension = suspension;
+  }
+
+  @Override
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * @return 距离下一次执行的毫秒数
+   */
+  @Override
+  public long getInitDelayMillis() {
+    Date next = nextFireTime(null);
+    return next == null ? -1 : Math.max(0, next.getTime() - System.currentTimeMillis());
+  }
+
+  /**
+   * @return 执行间隔不固定，返回 -1
+   */
+  @Override
+  public long getRepeatMillis() {
+    return -1;
+  }
+
+  @Override
+  public boolean shouldSuspendNow() {
+    if (suspension == null) {
+      return false;
+    }
+
+    return suspension.shouldSuspend(new Date());
+  }
+
+  @Override
+  public Date nextFireTime(@Nullable Date lastFireTime) {
+    Date now = new Date();
+    Date after = lastFireTime == null || lastFireTime.before(now) ? now : lastFireTime;
+    Date next = expression.next(after);
+    if (suspension == null) {
+      return next;
+    }
+
+    for (int i = 0; next != null && suspension.shouldSuspend(next); i++) {
+      Date resume = suspension.nextUnsuspendedTime(next);
+      if (resume == null || i >= MAX_SUSPENSION_SKIPS) {
+        return null;
+      }
+      next = expression.next(new Date(resume.getTime() - 1));
+    }
+    return next;
+  }
+
+  public CronExpression getExpression() {
+    return expression;
+  }
+}
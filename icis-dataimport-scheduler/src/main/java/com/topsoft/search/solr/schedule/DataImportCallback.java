@@ -0,0 +1,24 @@
+package com.topsoft.search.solr.schedule;
+
+/**
+ * 数据导入结束(完成或失败)后的回调，例如使客户端的查询结果缓存失效。因导入正在进行而跳过的执行不会回调。
+ * <pre>{@code
+ *   SolrjDataImportAction action = new SolrjDataImportAction(baseUrl, "/dataimport", parameterMap);
+ *   final Runnable invalidator = cache.invalidator("namestore");
+ *   action.addCallback(new DataImportCallback() {
+ *     public void onFinished(DataImportResult result) {
+ *       invalidator.run();
+ *     }
+ *   });
+ *   scheduler.schedule(trigger, action);
+ * }</pre>
+ *
+ * @author wangyg
+ * @see SolrjDataImportAction#addCallback(DataImportCallback)
+ */
+public interface DataImportCallback {
+  /**
+   * @param result 本次导入的结果
+   */
+  void onFinished(DataImportResult result);
+}
@@ -8,7 +8,10 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.MapConstraint;
 import com.google.common.collect.MapConstraints;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.topsoft.search.HttpSolrServerCache;
 import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
 import org.joda.time.LocalTime;
 import org.joda.time.MonthDay;
 import org.w3c.dom.Document;
@@ -24,11 +27,13 @@ import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
 import static com.google.common.base.Preconditions.*;
 import static com.google.common.collect.Lists.*;
+import static com.google.common.collect.Maps.newHashMap;
 import static com.google.common.collect.Maps.newLinkedHashMap;
 import static com.topsoft.search.solr.schedule.DataImportConstants.*;
 
@@ -85,8 +90,24 @@ public class DataImportConfig {
     return pathPart;
   }
 
+  /**
+   * 使用共享的 {@link HttpSolrServerCache#getInstance()} 发送数据导入请求。
+   * 需要独立的连接池时调用 {@link #scheduleWith(DataImportScheduler, HttpSolrServerCache)}，
+   * 并在调度器终止后关闭传入的 {@link HttpSolrServerCache}
+   */
   public List<ScheduledFuture<?>> scheduleWith(DataImportScheduler scheduler) {
+    return scheduleWith(scheduler, HttpSolrServerCache.getInstance());
+  }
+
+  /**
+   * @param solrServers 发送数据导入请求所使用的 {@link HttpSolrServerCache}，与查询客户端分开以免互相影响
+   */
+  public List<ScheduledFuture<?>> scheduleWith(DataImportScheduler scheduler, HttpSolrServerCache solrServers) {
+    checkNotNull(solrServers, "solrServers must not be null!");
     final List<ScheduledFuture<?>> futures = newLinkedList();
+    // 指向同一个core的调度共用一个coordinator，等待中的导入由scheduler执行，scheduler不支持时在结束导入的线程中执行
+    final Executor executor = scheduler instanceof Executor ? (Executor) scheduler : MoreExecutors.sameThreadExecutor();
+    final Map<String, DataImportCoordinator> coordinators = newHashMap();
     for (ServerElement server : servers) {
       List<SchedulerElement> schedulerElements = server.getSchedulers();
 
@@ -104,11 +125,18 @@ public class DataImportConfig {
               suspensionElement.monthWeekDays, suspensionElement.weekdays);
         }
 
-        DefaultTrigger trigger = new DefaultTrigger(triggerElement.getName(), triggerElement.getInitDelayMillis(),
-            triggerElement.getRepeatIntervalMillis(), suspension);
+        Trigger trigger = triggerElement.newTrigger(suspension);
 
-        ScheduledFuture<?> future = scheduler.schedule(trigger,
-            new SolrjDataImportAction(requestBaseUrl, path, parameterMap));
+        String dataImportUrl = requestBaseUrl + path;
+        DataImportCoordinator coordinator = coordinators.get(dataImportUrl);
+        if (coordinator == null) {
+          coordinator = new DataImportCoordinator(executor);
+          coordinators.put(dataImportUrl, coordinator);
+        }
+
+        SolrjDataImportAction action = new SolrjDataImportAction(solrServers, requestBaseUrl, path, parameterMap,
+            coordinator, DEFAULT_STATUS_POLL_MILLIS, schedulerElement.getMaxImportMillis()).suspendWith(trigger);
+        ScheduledFuture<?> future = scheduler.schedule(trigger, action);
         futures.add(future);
       }
 
@@ -230,6 +258,7 @@ public class DataImportConfig {
     String startTimeStringify;
     boolean foundStartTimeElement = false;
     long repeatIntervalMillis;
+    CronExpression cronExpression;
 
     public TriggerElement(Element triggerElement) {
       String nameValue = triggerElement.getAttribute(NAME_ATTR);
@@ -262,6 +291,17 @@ public class DataImportConfig {
           startTimeUnit = Strings.isNullOrEmpty(startTimeUnitValueStringify) ?
               TimeUnit.MILLISECONDS : TimeUnit.valueOf(startTimeUnitValueStringify.toUpperCase());
 
+        } else if (item.getNodeName().equals(CRON_TAG)) {
+          Element cronElement = (Element) item;
+          String zoneId = cronElement.getAttribute(TIME_ZONE_ATTR);
+          try {
+            cronExpression = CronExpression.parse(cronElement.getTextContent(),
+                Strings.isNullOrEmpty(zoneId) ? DateTimeZone.getDefault() : DateTimeZone.forID(zoneId));
+          } catch (IllegalArgumentException e) {
+            throw new DataImportParseException(String.format("The element '%s' of trigger '%s' is invalid: %s",
+                CRON_TAG, name, e.getMessage()), e);
+          }
+
         } else if (item.getNodeName().equals(REPEAT_TAG)) {
           foundRepeatElement = true;
           Element repeatElement = (Element) item;
@@ -287,9 +327,22 @@ public class DataImportConfig {
 
       }
 
-      if (!foundRepeatElement) {
-        throw new DataImportParseException(String.format("The element '%s' must be present!", REPEAT_TAG));
+      if (cronExpression != null) {
+        if (foundStartTimeElement || foundRepeatElement) {
+          throw new DataImportParseException(String.format("The element '%s' can not be used together with '%s' " +
+              "or '%s'!", CRON_TAG, START_TIME_TAG, REPEAT_TAG));
+        }
+      } else if (!foundRepeatElement) {
+        throw new DataImportParseException(String.format("The element '%s' or '%s' must be present!", REPEAT_TAG,
+            CRON_TAG));
+      }
+    }
+
+    public Trigger newTrigger(@Nullable Suspension suspension) {
+      if (cronExpression != null) {
+        return new CronTrigger(name, cronExpression, suspension);
       }
+      return new DefaultTrigger(name, getInitDelayMillis(), repeatIntervalMillis, suspension);
     }
 
     public long getInitDelayMillis() {
@@ -635,7 +688,8 @@ public class DataImportConfig {
                 REQUEST_ATTR, DataImportConstants.SCHEDULER_TAG));
           }
 
-          schedulers.add(new SchedulerElement(this, triggerName, suspensionName, requestName));
+          schedulers.add(new SchedulerElement(this, triggerName, suspensionName, requestName,
+              parseMaxImportMillis(schedulerElement)));
           // 该server是multi core
         } else if (CORE_TAG.equals(child.getNodeName()) && child.getNodeType() == Node.ELEMENT_NODE) {
           isMultiCore = true;
@@ -737,7 +791,8 @@ public class DataImportConfig {
                 REQUEST_ATTR, DataImportConstants.SCHEDULER_TAG));
           }
 
-          schedulers.add(new SchedulerElement(this, triggerName, suspensionName, requestName));
+          schedulers.add(new SchedulerElement(this, triggerName, suspensionName, requestName,
+              parseMaxImportMillis(schedulerElement)));
         }
       }
     }
@@ -768,14 +823,17 @@ public class DataImportConfig {
     private final NameEqualsTo<TriggerElement> triggerName;
     private final NameEqualsTo<SuspensionElement> suspensionName;
     private final NameEqualsTo<RequestElement> requestName;
+    private final long maxImportMillis;
 
-    public SchedulerElement(DataImportEnable owner, String triggerName, String suspensionName, String requestName) {
+    public SchedulerElement(DataImportEnable owner, String triggerName, String suspensionName, String requestName,
+                            long maxImportMillis) {
       this.owner = checkNotNull(owner);
       this.triggerName = new NameEqualsTo<TriggerElement>(triggerName);
       this.suspensionName = Strings.isNullOrEmpty(suspensionName) ?
           null : new NameEqualsTo<SuspensionElement>(suspensionName);
 
       this.requestName = new NameEqualsTo<RequestElement>(requestName);
+      this.maxImportMillis = maxImportMillis;
     }
 
     public TriggerElement getTrigger() {
@@ -813,6 +871,34 @@ public class DataImportConfig {
     public long getRepeatIntervalMillis() {
       return getTrigger().repeatIntervalMillis;
     }
+
+    public long getMaxImportMillis() {
+      return maxImportMillis;
+    }
+  }
+
+  /**
+   * scheduler元素的 {@code max-duration} 属性，即导入的最长时间，单位为分钟，
+   * 未配置时为 {@link DataImportConstants#DEFAULT_MAX_IMPORT_MILLIS}
+   */
+  private static long parseMaxImportMillis(Element schedulerElement) {
+    String maxDurationStringify = schedulerElement.getAttribute(MAX_DURATION_ATTR);
+    if (Strings.isNullOrEmpty(maxDurationStringify)) {
+      return DEFAULT_MAX_IMPORT_MILLIS;
+    }
+
+    long maxDuration;
+    try {
+      maxDuration = Long.parseLong(maxDurationStringify.trim());
+    } catch (NumberFormatException e) {
+      throw new DataImportParseException(String.format("The attribute '%s' of element '%s' must be a number!",
+          MAX_DURATION_ATTR, SCHEDULER_TAG), e);
+    }
+    if (maxDuration <= 0) {
+      throw new DataImportParseException(String.format("The attribute '%s' of element '%s' must be greater than zero!",
+          MAX_DURATION_ATTR, SCHEDULER_TAG));
+    }
+    return TimeUnit.MINUTES.toMillis(maxDuration);
   }
 
   public static void main(String[] args) throws IOException {
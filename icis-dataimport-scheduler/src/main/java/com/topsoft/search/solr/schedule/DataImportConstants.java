@@ -1,8 +1,11 @@
 package com.topsoft.search.solr.schedule;
 
+import com.topsoft.search.SolrConnectionConfig;
 import org.joda.time.format.DateTimeFormat;
 import org.joda.time.format.DateTimeFormatter;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * @author wangyg
  */
@@ -18,6 +21,7 @@ public class DataImportConstants {
   public static final String CORE_TAG = "core";
   public static final String START_TIME_TAG = "start-time";
   public static final String REPEAT_TAG = "repeat";
+  public static final String CRON_TAG = "cron";
   public static final String TIME_RANGE_TAG = "time-range";
   public static final String MONTH_DAY_TAG = "month-day";
   public static final String MONTH_WEEKDAY_TAG = "month-weekday";
@@ -26,6 +30,7 @@ public class DataImportConstants {
   public static final String SCHEDULER_TAG = "scheduler";
   public static final String NAME_ATTR = "name";
   public static final String TIME_UNIT_ATTR = "time-unit";
+  public static final String TIME_ZONE_ATTR = "time-zone";
   public static final String FROM_ATTR = "from";
   public static final String TO_ATTR = "to";
   public static final String MONTH_ATTR = "month";
@@ -38,7 +43,21 @@ public class DataImportConstants {
   public static final String TRIGGER_ATTR = "trigger";
   public static final String SUSPEND_WITH_ATTR = "suspend-with";
   public static final String REQUEST_ATTR = "request";
+  public static final String MAX_DURATION_ATTR = "max-duration";
   public static final String DEFAULT_DATAIMPORT_PATH = "/dataimport";
+  public static final String COMMAND_PARAM = "command";
+  public static final String STATUS_COMMAND = "status";
+  public static final String FULL_IMPORT_COMMAND = "full-import";
+  // 发出导入命令后查询导入状态的间隔
+  public static final long DEFAULT_STATUS_POLL_MILLIS = 5000;
+  public static final String ABORT_COMMAND = "abort";
+  // 导入超过该时长仍未结束时发送abort命令中止
+  public static final long DEFAULT_MAX_IMPORT_MILLIS = TimeUnit.HOURS.toMillis(6);
   public static final DateTimeFormatter TIME_PATTERN = DateTimeFormat.forPattern("HH:mm:ss");
   public static final String DEFAULT_CONF_FILE = "dataimport.xml";
+  // 数据导入请求很少且立即返回，使用独立的小连接池，不占用查询客户端的连接
+  public static final SolrConnectionConfig DATAIMPORT_CONNECTION_CONFIG = SolrConnectionConfig.builder()
+      .setMaxConnectionsPerRoute(2)
+      .setMaxConnectionsTotal(8)
+      .build();
 }
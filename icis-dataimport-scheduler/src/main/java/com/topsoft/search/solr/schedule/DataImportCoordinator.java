@@ -0,0 +1,136 @@
+package com.topsoft.search.solr.schedule;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static com.google.common.base.Preconditions.*;
+
+/**
+ * <p>协调同一个core上的数据导入，同一时间只执行一个导入:
+ * <ul>
+ * <li>没有导入正在执行时立即执行；</li>
+ * <li>有导入正在执行时记录为等待执行，不阻塞调用线程，由 {@link #release()} 提交到 {@link Executor} 执行；</li>
+ * <li>最多只有一个导入等待执行，全量导入会取代等待中的增量导入，其余情况直接跳过；</li>
+ * <li>全量导入正在执行或等待执行时，增量导入直接跳过。</li>
+ * </ul>
+ * 每个core使用一个实例，由 {@link DataImportConfig#scheduleWith(DataImportScheduler)} 为指向同一个core的调度共享。
+ *
+ * @author wangyg
+ * @see SolrjDataImportAction
+ */
+public class DataImportCoordinator {
+  private static final Logger logger = LoggerFactory.getLogger(DataImportCoordinator.class);
+
+  private final Executor executor;
+  private final Object monitor = new Object();
+  private boolean running;
+  private boolean fullImportRunning;
+  private Runnable pendingImport;
+  private boolean pendingFullImport;
+
+  /**
+   * 等待执行的导入在调用 {@link #release()} 的线程中执行
+   */
+  public DataImportCoordinator() {
+    this(MoreExecutors.sameThreadExecutor());
+  }
+
+  /**
+   * @param executor 执行等待中的导入
+   */
+  public DataImportCoordinator(Executor executor) {
+    this.executor = checkNotNull(executor, "executor must not be null!");
+  }
+
+  /**
+   * 请求执行导入，不会阻塞
+   *
+   * @param fullImport    是否为全量导入
+   * @param pendingImport 需要等待时记录的导入，之后由 {@link #release()} 提交执行，执行结束后同样必须调用 {@link #release()}
+   * @return {@link Decision#RUN} 时调用方立即执行导入，结束后必须调用 {@link #release()}
+   */
+  public Decision acquire(boolean fullImport, Runnable pendingImport) {
+    checkNotNull(pendingImport, "pendingImport must not be null!");
+    synchronized (monitor) {
+      if (!running) {
+        running = true;
+        fullImportRunning = fullImport;
+        return Decision.RUN;
+      }
+
+      if (fullImport) {
+        if (pendingFullImport) {
+          return Decision.SKIPPED;
+        }
+        if (this.pendingImport != null) {
+          logger.info("pending delta-import is superseded by full-import");
+        }
+        this.pendingImport = pendingImport;
+        pendingFullImport = true;
+        return Decision.PENDING;
+      }
+
+      if (fullImportRunning || this.pendingImport != null) {
+        return Decision.SKIPPED;
+      }
+      this.pendingImport = pendingImport;
+      return Decision.PENDING;
+    }
+  }
+
+  /**
+   * 导入结束，有等待中的导入时提交执行
+   */
+  public void release() {
+    Runnable next;
+    synchronized (monitor) {
+      next = pendingImport;
+      fullImportRunning = next != null && pendingFullImport;
+      running = next != null;
+      pendingImport = null;
+      pendingFullImport = false;
+    }
+
+    if (next != null) {
+      try {
+        executor.execute(next);
+      } catch (RejectedExecutionException e) {
+        logger.warn("pending dataimport is rejected, the executor may have been shut down", e);
+        synchronized (monitor) {
+          running = false;
+          fullImportRunning = false;
+          pendingImport = null;
+          pendingFullImport = false;
+        }
+      }
+    }
+  }
+
+  public boolean isRunning() {
+    synchronized (monitor) {
+      return running;
+    }
+  }
+
+  /**
+   * {@link #acquire(boolean, Runnable)} 的结果
+   */
+  public static enum Decision {
+    /**
+     * 立即执行
+     */
+    RUN,
+    /**
+     * 已记录为等待执行
+     */
+    PENDING,
+    /**
+     * 跳过本次导入
+     */
+    SKIPPED
+  }
+}
@@ -0,0 +1,123 @@
+package com.topsoft.search.solr.schedule;
+
+import com.google.common.base.Objects;
+
+import java.util.Date;
+
+import static com.google.common.base.Preconditions.*;
+
+/**
+ * 一次数据导入的执行结果，由 {@link SolrjDataImportAction} 在导入结束(或因导入正在进行而跳过)后记录
+ *
+ * @author wangyg
+ */
+public class DataImportResult {
+  private final String url;
+  private final String command;
+  private final Status status;
+  private final long startTime;
+  private final long endTime;
+  private final long documentsProcessed;
+  private final long documentsFailed;
+  private final String message;
+
+  DataImportResult(String url, String command, Status status, long startTime, long endTime,
+                   long documentsProcessed, long documentsFailed, String message) {
+    this.url = checkNotNull(url);
+    this.command = command;
+    this.status = checkNotNull(status);
+    this.startTime = startTime;
+    this.endTime = endTime;
+    this.documentsProcessed = documentsProcessed;
+    this.documentsFailed = documentsFailed;
+    this.message = message;
+  }
+
+  static DataImportResult skipped(String url, String command, String message) {
+    long now = System.currentTimeMillis();
+    return new DataImportResult(url, command, Status.SKIPPED, now, now, 0, 0, message);
+  }
+
+  /**
+   * @return 数据导入请求的地址
+   */
+  public String getUrl() {
+    return url;
+  }
+
+  /**
+   * @return 导入命令，例如 {@code full-import}、{@code delta-import}
+   */
+  public String getCommand() {
+    return command;
+  }
+
+  public Status getStatus() {
+    return status;
+  }
+
+  public boolean isCompleted() {
+    return status == Status.COMPLETED;
+  }
+
+  public Date getStartTime() {
+    return new Date(startTime);
+  }
+
+  public Date getEndTime() {
+    return new Date(endTime);
+  }
+
+  public long getDurationMillis() {
+    return endTime - startTime;
+  }
+
+  /**
+   * @return DIH状态中的 {@code Total Documents Processed}
+   */
+  public long getDocumentsProcessed() {
+    return documentsProcessed;
+  }
+
+  /**
+   * @return DIH状态中的 {@code Total Documents Failed}
+   */
+  public long getDocumentsFailed() {
+    return documentsFailed;
+  }
+
+  /**
+   * @return DIH返回的状态描述，例如 {@code Indexing completed. Added/Updated: 10 documents. Deleted 0 documents.}
+   */
+  public String getMessage() {
+    return message;
+  }
+
+  @Override
+  public String toString() {
+    return Objects.toStringHelper(this)
+        .add("url", url)
+        .add("command", command)
+        .add("status", status)
+        .add("durationMillis", getDurationMillis())
+        .add("documentsProcessed", documentsProcessed)
+        .add("documentsFailed", documentsFailed)
+        .add("message", message)
+        .toString();
+  }
+
+  public static enum Status {
+    /**
+     * 导入正常结束
+     */
+    COMPLETED,
+    /**
+     * 导入失败或被中止
+     */
+    FAILED,
+    /**
+     * 触发时该core正在导入，本次未发送请求
+     */
+    SKIPPED
+  }
+}
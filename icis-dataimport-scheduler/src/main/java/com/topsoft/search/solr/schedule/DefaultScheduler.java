@@ -4,18 +4,33 @@ import org.joda.time.DateTime;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Date;
 import java.util.List;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import static com.google.common.base.Preconditions.*;
 
 /**
+ * <p>每次执行结束后才按 {@link Trigger#nextFireTime(Date)} 安排下一次执行，而不是 {@code scheduleAtFixedRate}，
+ * 同一个任务不会重叠执行，也不会在执行结束后连续补发错过的执行。触发器计算的执行时间已跳过暂停时段，暂停期间不会被唤醒。
+ * <p>执行抛出的异常只记录日志，不影响之后的执行。
+ *
  * @author wangyg
  */
-class DefaultScheduler implements Scheduler {
+class DefaultScheduler implements Scheduler, Executor {
   private static final Logger logger = LoggerFactory.getLogger(DefaultScheduler.class);
+  private static final Runnable NOOP = new Runnable() {
+    @Override
+    public void run() {
+    }
+  };
   private final ScheduledExecutorService executor;
 
   DefaultScheduler(ScheduledExecutorService service) {
@@ -23,11 +38,30 @@ class DefaultScheduler implements Scheduler {
   }
 
   @Override
-  public ScheduledFuture<?> schedule(Trigger trigger, Runnable command) {
+  public TriggerScheduledFuture<?> schedule(Trigger trigger, Runnable command) {
     TriggerRunnableAdapter runnableAdapter = new TriggerRunnableAdapter(checkNotNull(trigger), checkNotNull(command));
 
-    return executor.scheduleAtFixedRate(runnableAdapter, trigger.getInitDelayMillis(), trigger.getRepeatMillis(),
-        TimeUnit.MILLISECONDS);
+    return new ReschedulingRunnable(runnableAdapter).schedule();
+  }
+
+  /**
+   * 立即执行一次任务，抛出的异常只记录日志。{@link DataImportCoordinator} 用来执行等待中的导入
+   *
+   * @throws RejectedExecutionException 调度器已关闭
+   */
+  @Override
+  public void execute(final Runnable command) {
+    checkNotNull(command);
+    executor.execute(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          command.run();
+        } catch (RuntimeException e) {
+          logger.error("task failed", e);
+        }
+      }
+    });
   }
 
   @Override
@@ -59,6 +93,127 @@ class DefaultScheduler implements Scheduler {
     return executor;
   }
 
+  private class ReschedulingRunnable implements TriggerScheduledFuture<Object>, Runnable {
+    private final TriggerRunnableAdapter delegate;
+    private final Object monitor = new Object();
+    private Date scheduledTime;
+    private ScheduledFuture<?> currentFuture;
+    private boolean cancelled;
+    private boolean finished;
+
+    private ReschedulingRunnable(TriggerRunnableAdapter delegate) {
+      this.delegate = delegate;
+    }
+
+    TriggerScheduledFuture<?> schedule() {
+      synchronized (monitor) {
+        scheduledTime = delegate.trigger.nextFireTime(null);
+        if (scheduledTime == null) {
+          // 始终处于暂停时段内，不会执行
+          logger.warn("trigger[{}] will never be fired", delegate.trigger.getName());
+          finished = true;
+          currentFuture = executor.schedule(NOOP, 0, TimeUnit.MILLISECONDS);
+          return this;
+        }
+        currentFuture = executor.schedule(this, scheduledTime.getTime() - System.currentTimeMillis(),
+            TimeUnit.MILLISECONDS);
+      }
+      return this;
+    }
+
+    @Override
+    public Trigger getTrigger() {
+      return delegate.trigger;
+    }
+
+    @Override
+    public Date getNextFireTime() {
+      synchronized (monitor) {
+        return cancelled || finished ? null : scheduledTime;
+      }
+    }
+
+    @Override
+    public void run() {
+      try {
+        delegate.run();
+      } catch (RuntimeException e) {
+        logger.error("trigger[" + delegate.trigger.getName() + "] failed", e);
+      }
+
+      synchronized (monitor) {
+        if (cancelled || executor.isShutdown()) {
+          return;
+        }
+
+        Date next = delegate.trigger.nextFireTime(scheduledTime);
+        if (next == null) {
+          finished = true;
+          scheduledTime = null;
+          return;
+        }
+        scheduledTime = next;
+        try {
+          currentFuture = executor.schedule(this, next.getTime() - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+          logger.debug("trigger[{}] is not rescheduled since the scheduler has been shut down", delegate.trigger.getName());
+        }
+      }
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+      synchronized (monitor) {
+        cancelled = true;
+        return currentFuture.cancel(mayInterruptIfRunning);
+      }
+    }
+
+    @Override
+    public boolean isCancelled() {
+      synchronized (monitor) {
+        return cancelled;
+      }
+    }
+
+    @Override
+    public boolean isDone() {
+      synchronized (monitor) {
+        return currentFuture.isDone() && (cancelled || finished || executor.isShutdown());
+      }
+    }
+
+    @Override
+    public Object get() throws InterruptedException, ExecutionException {
+      return currentFuture().get();
+    }
+
+    @Override
+    public Object get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+      return currentFuture().get(timeout, unit);
+    }
+
+    @Override
+    public long getDelay(TimeUnit unit) {
+      return currentFuture().getDelay(unit);
+    }
+
+    @Override
+    public int compareTo(Delayed other) {
+      if (this == other) {
+        return 0;
+      }
+      long diff = getDelay(TimeUnit.MILLISECONDS) - other.getDelay(TimeUnit.MILLISECONDS);
+      return diff == 0 ? 0 : (diff < 0 ? -1 : 1);
+    }
+
+    private ScheduledFuture<?> currentFuture() {
+      synchronized (monitor) {
+        return currentFuture;
+      }
+    }
+  }
+
   private static class TriggerRunnableAdapter implements Runnable {
     final Trigger trigger;
     final Runnable delegate;
@@ -72,6 +227,7 @@ class DefaultScheduler implements Scheduler {
     public void run() {
       DateTime now = DateTime.now();
 
+      // 执行时间已跳过暂停时段，这里只处理系统时间被调整等情况
       if (trigger.shouldSuspendNow()) {
         if (logger.isDebugEnabled()) {
           logger.debug("trigger[{}] has been suspended at {}", trigger.getName(), now);
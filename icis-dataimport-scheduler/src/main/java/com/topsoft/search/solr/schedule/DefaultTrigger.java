@@ -12,6 +12,8 @@ import static com.google.common.base.Preconditions.*;
  * @author wangyg
  */
 class DefaultTrigger implements Trigger {
+  // 连续跳过暂停时段的最大次数，超过后按计算出的时间执行，由执行时的检查决定是否跳过
+  private static final int MAX_SUSPENSION_SKIPS = 1000;
   private final long initDelayMillis, repeatMillis;
   private final Suspension suspension;
   private final AtomicInteger instanceNumber = new AtomicInteger(1);
@@ -21,7 +23,6 @@ class DefaultTrigger implements Trigger {
     this.name = Strings.isNullOrEmpty(name) ?
         DefaultTrigger.class.getName() + "-" + instanceNumber.getAndIncrement() : name;
     checkArgument(initDelayMillis >= 0);
-    checkArgument(initDelayMillis >= 0);
     this.initDelayMillis = initDelayMillis;
     this.repeatMillis = repeatMillis;
     this.suspension = suspension;
@@ -42,6 +43,46 @@ class DefaultTrigger implements Trigger {
     return repeatMillis;
   }
 
+  /**
+   * 第一次在 {@link #getInitDelayMillis()} 之后执行，之后每隔 {@link #getRepeatMillis()} 执行一次，
+   * 上一次执行超过间隔时跳过错过的时间点；{@link #getRepeatMillis()} 不大于0时只执行一次。
+   * 落在暂停时段内的执行推迟到暂停结束后的第一个时间点。
+   */
+  @Override
+  public Date nextFireTime(@Nullable Date lastFireTime) {
+    long now = System.currentTimeMillis();
+    long next;
+    if (lastFireTime == null) {
+      next = now + initDelayMillis;
+    } else if (repeatMillis <= 0) {
+      return null;
+    } else {
+      next = lastFireTime.getTime() + repeatMillis;
+      if (next <= now) {
+        next += ((now - next) / repeatMillis + 1) * repeatMillis;
+      }
+    }
+
+    return suspension == null ? new Date(next) : skipSuspension(new Date(next));
+  }
+
+  private Date skipSuspension(Date next) {
+    for (int i = 0; i < MAX_SUSPENSION_SKIPS && suspension.shouldSuspend(next); i++) {
+      Date resume = suspension.nextUnsuspendedTime(next);
+      if (resume == null) {
+        return null;
+      }
+
+      if (repeatMillis <= 0) {
+        return resume;
+      }
+      // 保持原有的执行节奏，取暂停结束后的第一个时间点
+      long repeats = (resume.getTime() - next.getTime() + repeatMillis - 1) / repeatMillis;
+      next = new Date(next.getTime() + repeats * repeatMillis);
+    }
+    return next;
+  }
+
   @Override
   public boolean shouldSuspendNow() {
     if (suspension == null) {
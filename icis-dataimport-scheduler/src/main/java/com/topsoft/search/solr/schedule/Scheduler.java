@@ -9,9 +9,9 @@ import java.util.concurrent.TimeUnit;
  */
 public interface Scheduler {
   /**
-   * @param trigger
-   * @param command
-   * @return
+   * @param trigger 决定执行时间的触发器
+   * @param command 执行的任务
+   * @return 可取消任务的 {@link ScheduledFuture}，默认实现返回的是可以查看下一次执行时间的 {@link TriggerScheduledFuture}
    */
   ScheduledFuture<?> schedule(Trigger trigger, Runnable command);
 
@@ -1,5 +1,7 @@
 package com.topsoft.search.solr.schedule;
 
+import com.topsoft.search.HttpSolrServerCache;
+
 import java.util.List;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
@@ -7,6 +9,8 @@ import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import static com.topsoft.search.solr.schedule.DataImportConstants.DATAIMPORT_CONNECTION_CONFIG;
+
 /**
  * @author wangyg
  */
@@ -35,9 +39,22 @@ public class Schedulers {
     return newDataImportScheduler(corePoolSize, new DefaultThreadFactory("dataimport-scheduler"));
   }
 
+  /**
+   * 返回的调度器自带发送数据导入请求所使用的 {@link HttpSolrServerCache}，调度器终止后随之关闭
+   */
   public static DataImportScheduler newDataImportScheduler(int corePoolSize, ThreadFactory threadFactory) {
-    ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(corePoolSize, threadFactory);
-    return new DefaultDataImportScheduler(executor);
+    final HttpSolrServerCache solrServers = HttpSolrServerCache.builder()
+        .setConnectionConfig(DATAIMPORT_CONNECTION_CONFIG)
+        .build();
+    ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(corePoolSize, threadFactory) {
+      @Override
+      protected void terminated() {
+        super.terminated();
+        solrServers.shutdown();
+      }
+    };
+    executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+    return new DefaultDataImportScheduler(executor, solrServers);
   }
 
   public static Scheduler newSingleThreadScheduler() {
@@ -58,8 +75,14 @@ public class Schedulers {
   }
 
   public static Scheduler newScheduler(int corePoolSize, ThreadFactory threadFactory) {
+    return new DefaultScheduler(newExecutor(corePoolSize, threadFactory));
+  }
+
+  private static ScheduledThreadPoolExecutor newExecutor(int corePoolSize, ThreadFactory threadFactory) {
     ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(corePoolSize, threadFactory);
-    return new DefaultScheduler(executor);
+    // 下一次执行是单次延时任务，关闭后不再等待这些尚未开始的任务
+    executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+    return executor;
   }
 
   private static class DefaultThreadFactory implements ThreadFactory {
@@ -89,14 +112,16 @@ public class Schedulers {
   }
 
   private static class DefaultDataImportScheduler extends DefaultScheduler implements DataImportScheduler {
+    private final HttpSolrServerCache solrServers;
 
-    DefaultDataImportScheduler(ScheduledExecutorService service) {
+    DefaultDataImportScheduler(ScheduledExecutorService service, HttpSolrServerCache solrServers) {
       super(service);
+      this.solrServers = solrServers;
     }
 
     @Override
     public List<ScheduledFuture<?>> schedule(DataImportConfig config) {
-      return config.scheduleWith(this);
+      return config.scheduleWith(this, solrServers);
     }
   }
 }
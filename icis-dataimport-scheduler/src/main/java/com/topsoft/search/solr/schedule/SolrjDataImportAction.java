@@ -6,43 +6,292 @@ import org.apache.solr.client.solrj.SolrServerException;
 import org.apache.solr.client.solrj.impl.HttpSolrServer;
 import org.apache.solr.common.params.CommonParams;
 import org.apache.solr.common.params.ModifiableSolrParams;
+import org.apache.solr.common.util.NamedList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import static com.google.common.base.Preconditions.*;
-import static com.topsoft.search.solr.schedule.DataImportConstants.DEFAULT_DATAIMPORT_PATH;
+import static com.topsoft.search.solr.schedule.DataImportConstants.*;
 
 /**
+ * <p>发送数据导入请求。对于 {@code full-import}、{@code delta-import} 等导入命令，发送前先查询 {@code command=status}，
+ * 该core正在导入时跳过本次执行；发送后按固定间隔查询状态直到导入结束(超过最长时间时发送 {@code command=abort} 中止)，并记录耗时、处理的文档数以及失败情况。
+ * <p>立即执行的导入在结束后 {@link #run()} 才返回，配合 {@link DefaultScheduler} 在执行结束后才安排下一次执行，同一个core的导入不会重叠或堆积。
+ * 指向同一个core的多个调度共用一个 {@link DataImportCoordinator}，由其决定导入的先后以及是否跳过，
+ * 需要等待的导入不占用线程，在当前导入结束后再提交执行。
+ *
  * @author wangyg
  */
 public class SolrjDataImportAction implements Runnable {
+  private static final Logger logger = LoggerFactory.getLogger(SolrjDataImportAction.class);
+  private static final String BUSY = "busy";
+  private static final String IDLE = "idle";
+
+  private final HttpSolrServerCache servers;
   private final String baseUrl;
   private final String dataImportPath;
   private final Map<String, String> parameterMap;
+  private final long pollMillis;
+  private final long maxImportMillis;
+  private final DataImportCoordinator coordinator;
+  private final List<DataImportCallback> callbacks = new CopyOnWriteArrayList<DataImportCallback>();
+  private volatile Trigger suspendTrigger;
+  private volatile DataImportResult lastResult;
 
   public SolrjDataImportAction(String baseUrl, String dataImportPath, Map<String, String> parameterMap) {
+    this(HttpSolrServerCache.getInstance(), baseUrl, dataImportPath, parameterMap);
+  }
+
+  public SolrjDataImportAction(HttpSolrServerCache servers, String baseUrl, String dataImportPath,
+                               Map<String, String> parameterMap) {
+    this(servers, baseUrl, dataImportPath, parameterMap, new DataImportCoordinator(), DEFAULT_STATUS_POLL_MILLIS);
+  }
+
+  /**
+   * @param coordinator 同一个core的所有导入共用的 {@link DataImportCoordinator}
+   * @param pollMillis  发出导入命令后查询导入状态的间隔
+   */
+  public SolrjDataImportAction(HttpSolrServerCache servers, String baseUrl, String dataImportPath,
+                               Map<String, String> parameterMap, DataImportCoordinator coordinator, long pollMillis) {
+    this(servers, baseUrl, dataImportPath, parameterMap, coordinator, pollMillis, DEFAULT_MAX_IMPORT_MILLIS);
+  }
+
+  /**
+   * @param coordinator     同一个core的所有导入共用的 {@link DataImportCoordinator}
+   * @param pollMillis      发出导入命令后查询导入状态的间隔
+   * @param maxImportMillis 导入的最长时间，超过后发送 {@code command=abort} 并记录为失败
+   */
+  public SolrjDataImportAction(HttpSolrServerCache servers, String baseUrl, String dataImportPath,
+                               Map<String, String> parameterMap, DataImportCoordinator coordinator, long pollMillis,
+                               long maxImportMillis) {
+    this.servers = checkNotNull(servers);
     this.baseUrl = checkNotNull(baseUrl);
     this.dataImportPath = Strings.isNullOrEmpty(dataImportPath) ?
         DEFAULT_DATAIMPORT_PATH : dataImportPath;
     this.parameterMap = checkNotNull(parameterMap);
+    this.coordinator = checkNotNull(coordinator);
+    checkArgument(pollMillis > 0, "pollMillis must be greater than zero!");
+    this.pollMillis = pollMillis;
+    checkArgument(maxImportMillis > 0, "maxImportMillis must be greater than zero!");
+    this.maxImportMillis = maxImportMillis;
   }
 
   @Override
   public void run() {
+    final HttpSolrServer solrServer = servers.getUnchecked(baseUrl);
+    final String command = parameterMap.get(COMMAND_PARAM);
+
+    if (!isImportCommand(command)) {
+      query(solrServer, buildParams());
+      return;
+    }
+
+    Runnable pendingImport = new Runnable() {
+      @Override
+      public void run() {
+        runPending(solrServer, command);
+      }
+    };
+
+    switch (coordinator.acquire(FULL_IMPORT_COMMAND.equals(command), pendingImport)) {
+      case RUN:
+        runAcquired(solrServer, command);
+        break;
+      case PENDING:
+        logger.info("dataimport[{}] is running, {} will be executed after it finishes", getUrl(), command);
+        break;
+      default:
+        lastResult = DataImportResult.skipped(getUrl(), command, "Another dataimport is running or pending");
+        logger.info("dataimport[{}] has another dataimport running or pending, skip {}", getUrl(), command);
+    }
+  }
+
+  /**
+   * 等待中的导入不经过调度器的暂停检查，开始前在这里检查
+   */
+  private void runPending(HttpSolrServer solrServer, String command) {
+    Trigger trigger = suspendTrigger;
+    if (trigger != null && trigger.shouldSuspendNow()) {
+      lastResult = DataImportResult.skipped(getUrl(), command, "Suspended by trigger " + trigger.getName());
+      logger.info("trigger[{}] has been suspended, skip pending {} of dataimport[{}]",
+          trigger.getName(), command, getUrl());
+      coordinator.release();
+      return;
+    }
+    runAcquired(solrServer, command);
+  }
+
+  private void runAcquired(HttpSolrServer solrServer, String command) {
+    try {
+      runImport(solrServer, command);
+    } finally {
+      coordinator.release();
+    }
+  }
+
+  private void runImport(HttpSolrServer solrServer, String command) {
+    if (BUSY.equals(queryStatus(solrServer).get("status"))) {
+      lastResult = DataImportResult.skipped(getUrl(), command, "A command is still running");
+      logger.info("dataimport[{}] is still running, skip {}", getUrl(), command);
+      return;
+    }
+
+    long startTime = System.currentTimeMillis();
+    query(solrServer, buildParams());
+
+    // 导入在solr的后台线程中执行，刚发出命令时状态可能还未变为busy，因此先等待一个间隔再查询；
+    // 线程被中断(例如调度器shutdownNow)时sleep抛出异常，不再继续查询
+    NamedList<Object> status;
+    do {
+      if (System.currentTimeMillis() - startTime >= maxImportMillis) {
+        abort(solrServer, command, startTime);
+        return;
+      }
+      sleep();
+      status = queryStatus(solrServer);
+    } while (!IDLE.equals(status.get("status")));
+
+    lastResult = toResult(command, startTime, System.currentTimeMillis(), status.get("statusMessages"));
+    if (lastResult.isCompleted()) {
+      logger.info("dataimport finished: {}", lastResult);
+    } else {
+      logger.warn("dataimport failed: {}", lastResult);
+    }
+    fireFinished(lastResult);
+  }
+
+  /**
+   * 导入超时，发送abort命令后不再等待，记录为失败。solr中止导入之前，后续导入会因状态为busy而跳过
+   */
+  private void abort(HttpSolrServer solrServer, String command, long startTime) {
+    ModifiableSolrParams params = new ModifiableSolrParams();
+    params.set(CommonParams.QT, dataImportPath);
+    params.set(COMMAND_PARAM, ABORT_COMMAND);
+    query(solrServer, params);
+
+    lastResult = new DataImportResult(getUrl(), command, DataImportResult.Status.FAILED, startTime,
+        System.currentTimeMillis(), 0, 0, "Aborted after exceeding " + maxImportMillis + " ms");
+    logger.warn("dataimport timed out: {}", lastResult);
+    fireFinished(lastResult);
+  }
+
+  private void fireFinished(DataImportResult result) {
+    for (DataImportCallback callback : callbacks) {
+      try {
+        callback.onFinished(result);
+      } catch (RuntimeException e) {
+        logger.error("callback of dataimport[" + getUrl() + "] failed", e);
+      }
+    }
+  }
 
+  /**
+   * 添加导入结束(完成或失败)后的回调，在执行导入的线程中调用
+   *
+   * @return this
+   */
+  public SolrjDataImportAction addCallback(DataImportCallback callback) {
+    callbacks.add(checkNotNull(callback, "callback must not be null!"));
+    return this;
+  }
+
+  /**
+   * 等待其他导入结束后才执行的导入，开始前检查该触发器是否处于暂停时段，处于暂停时段时跳过
+   *
+   * @return this
+   */
+  public SolrjDataImportAction suspendWith(@Nullable Trigger trigger) {
+    this.suspendTrigger = trigger;
+    return this;
+  }
+
+  /**
+   * @return 最近一次导入的结果，尚未执行过导入命令时返回 {@code null}
+   */
+  public DataImportResult getLastResult() {
+    return lastResult;
+  }
+
+  public String getUrl() {
+    return baseUrl + dataImportPath;
+  }
+
+  private ModifiableSolrParams buildParams() {
     ModifiableSolrParams params = new ModifiableSolrParams();
     params.set(CommonParams.QT, dataImportPath);
 
     for (Map.Entry<String, String> entry : parameterMap.entrySet()) {
       params.set(entry.getKey(), entry.getValue());
     }
+    return params;
+  }
+
+  private NamedList<Object> queryStatus(HttpSolrServer solrServer) {
+    ModifiableSolrParams params = new ModifiableSolrParams();
+    params.set(CommonParams.QT, dataImportPath);
+    params.set(COMMAND_PARAM, STATUS_COMMAND);
+    return query(solrServer, params);
+  }
 
-    HttpSolrServerCache cache = HttpSolrServerCache.getInstance();
-    HttpSolrServer solrServer = cache.getUnchecked(baseUrl);
+  private NamedList<Object> query(HttpSolrServer solrServer, ModifiableSolrParams params) {
     try {
-      solrServer.query(params);
+      return solrServer.query(params).getResponse();
     } catch (SolrServerException e) {
       throw new DataImportException(e);
     }
   }
+
+  private void sleep() {
+    try {
+      Thread.sleep(pollMillis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new DataImportException("Interrupted while waiting for dataimport " + getUrl(), e);
+    }
+  }
+
+  private DataImportResult toResult(String command, long startTime, long endTime, Object statusMessages) {
+    String message = getMessage(statusMessages, "");
+    boolean failed = getMessage(statusMessages, "Rolledback") != null || getMessage(statusMessages, "Aborted") != null
+        || (message != null && message.toLowerCase().contains("failed"));
+
+    return new DataImportResult(getUrl(), command, failed ? DataImportResult.Status.FAILED : DataImportResult.Status.COMPLETED,
+        startTime, endTime, getCount(statusMessages, "Total Documents Processed"),
+        getCount(statusMessages, "Total Documents Failed"), message);
+  }
+
+  private static boolean isImportCommand(String command) {
+    return command != null && command.endsWith("import");
+  }
+
+  private static long getCount(Object statusMessages, String key) {
+    String value = getMessage(statusMessages, key);
+    if (value == null) {
+      return 0;
+    }
+
+    try {
+      return Long.parseLong(value.trim());
+    } catch (NumberFormatException e) {
+      return 0;
+    }
+  }
+
+  /**
+   * statusMessages经javabin传输后为 {@link Map}，经xml传输后为 {@link NamedList}
+   */
+  private static String getMessage(Object statusMessages, String key) {
+    Object value = null;
+    if (statusMessages instanceof Map) {
+      value = ((Map) statusMessages).get(key);
+    } else if (statusMessages instanceof NamedList) {
+      value = ((NamedList) statusMessages).get(key);
+    }
+    return value == null ? null : value.toString();
+  }
 }
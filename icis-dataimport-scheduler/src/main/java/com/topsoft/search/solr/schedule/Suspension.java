@@ -1,12 +1,17 @@
 package com.topsoft.search.solr.schedule;
 
 import com.google.common.collect.ImmutableList;
+import org.joda.time.Chronology;
 import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
 import org.joda.time.LocalDate;
 import org.joda.time.LocalTime;
 import org.joda.time.MonthDay;
+import org.joda.time.chrono.ISOChronology;
 
+import javax.annotation.Nullable;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Date;
 import java.util.List;
 
@@ -14,13 +19,27 @@ import static com.google.common.base.Preconditions.*;
 import static com.google.common.collect.Lists.*;
 
 /**
+ * <p>触发器的暂停规则，满足任意一条规则时暂停。
+ * <p>创建时将所有时间段编译为一天中每一秒是否暂停的位图，按日期的规则在第一次用到某一年时编译为该年每一天是否暂停的位图，
+ * 并保留最近用到的两年(跨年时当年和下一年交替查询不会反复编译)，
+ * {@link #shouldSuspend(Date)} 只需查询两个位图，{@link #nextUnsuspendedTime(Date)} 也直接在位图上查找。
+ *
  * @author wangyg
  */
 public class Suspension {
+  private static final int SECONDS_PER_DAY = 24 * 60 * 60;
+  private static final long MILLIS_PER_DAY = SECONDS_PER_DAY * 1000L;
+  // 查找不暂停的时间时最多向后查找的天数
+  private static final int MAX_SEARCH_DAYS = 2 * 366;
+
   private final List<TimeRange> timeRanges;
   private final List<MonthDay> monthDays;
   private final List<WeekdayOfWeekOfMonth> weekdayOfWeekOfMonths;
   private final List<Integer> weekdays;
+  private final Chronology chronology = ISOChronology.getInstance();
+  // 一天中暂停的秒
+  private final BitSet suspendedSeconds = new BitSet(SECONDS_PER_DAY);
+  private volatile SuspendedDays suspendedDays;
 
   Suspension(List<TimeRange> timeRanges, List<MonthDay> monthDays, List<WeekdayOfWeekOfMonth> weekdayOfWeekOfMonths,
              List<Integer> weekdays) {
@@ -29,6 +48,10 @@ public class Suspension {
     this.weekdayOfWeekOfMonths = weekdayOfWeekOfMonths == null ? new ArrayList<WeekdayOfWeekOfMonth>():
         ImmutableList.copyOf(weekdayOfWeekOfMonths);
     this.weekdays = weekdays == null ? new ArrayList<Integer>(): ImmutableList.copyOf(weekdays);
+
+    for (TimeRange timeRange : this.timeRanges) {
+      timeRange.fill(suspendedSeconds);
+    }
   }
 
   public static final Builder builder() {
@@ -36,33 +59,90 @@ public class Suspension {
   }
 
   public boolean shouldSuspend(Date date) {
-    final DateTime dateTime = new DateTime(date);
+    long millis = date.getTime();
+
+    if (suspendedSeconds.get(chronology.secondOfDay().get(millis))) {
+      return true;
+    }
+
+    return getSuspendedDays(chronology.year().get(millis)).get(chronology.dayOfYear().get(millis));
+  }
 
-    for (TimeRange timeRange : timeRanges) {
-      if (timeRange.toDateTimeAndContains(dateTime)) {
-        return true;
+  /**
+   * 查找不早于指定时间且不需要暂停的最早时间，供 {@link Trigger} 将落在暂停时段内的执行推迟到暂停结束
+   *
+   * @return 指定时间本身不需要暂停时原样返回，两年内都需要暂停时返回 {@code null}
+   */
+  @Nullable
+  public Date nextUnsuspendedTime(Date date) {
+    DateTimeZone zone = chronology.getZone();
+    Chronology localChronology = chronology.withUTC();
+    long localMillis = zone.convertUTCToLocal(date.getTime());
+
+    for (int i = 0; i < MAX_SEARCH_DAYS; i++) {
+      int year = localChronology.year().get(localMillis);
+      if (!getSuspendedDays(year).get(localChronology.dayOfYear().get(localMillis))) {
+        int second = localChronology.secondOfDay().get(localMillis);
+        int unsuspendedSecond = suspendedSeconds.nextClearBit(second);
+
+        if (i == 0 && unsuspendedSecond == second) {
+          return date;
+        }
+        if (unsuspendedSecond < SECONDS_PER_DAY) {
+          long startOfDay = localChronology.dayOfYear().roundFloor(localMillis);
+          // 落在夏令时跳过的时间内时，非严格转换得到跳过之后的时间
+          return new Date(zone.convertLocalToUTC(startOfDay + unsuspendedSecond * 1000L, false));
+        }
       }
+      localMillis = localChronology.dayOfYear().roundFloor(localMillis) + MILLIS_PER_DAY;
     }
+    return null;
+  }
 
-    for (MonthDay monthDay : monthDays) {
-      if (dateTime.getDayOfMonth() == monthDay.getDayOfMonth() && dateTime.getMonthOfYear() == monthDay.getMonthOfYear()) {
-        return true;
+  /**
+   * @return 指定年份中暂停的日期，以dayOfYear为下标
+   */
+  private BitSet getSuspendedDays(int year) {
+    SuspendedDays days = suspendedDays;
+    if (days != null) {
+      if (days.year == year) {
+        return days.days;
+      }
+      if (days.previous != null && days.previous.year == year) {
+        return days.previous.days;
       }
     }
 
-    for (WeekdayOfWeekOfMonth weekdayOfWeekOfMonth : weekdayOfWeekOfMonths) {
-      if (weekdayOfWeekOfMonth.toDateAndEquals(dateTime)) {
-        return true;
+    BitSet compiled = compileDays(year);
+    suspendedDays = new SuspendedDays(year, compiled, days == null ? null : new SuspendedDays(days.year, days.days, null));
+    return compiled;
+  }
+
+  private BitSet compileDays(int year) {
+    BitSet days = new BitSet(367);
+
+    if (!weekdays.isEmpty()) {
+      for (LocalDate date = new LocalDate(year, 1, 1, chronology); date.getYear() == year; date = date.plusDays(1)) {
+        if (weekdays.contains(date.getDayOfWeek())) {
+          days.set(date.getDayOfYear());
+        }
       }
     }
 
-    for (Integer weekday : weekdays) {
-      if (dateTime.getDayOfWeek() == weekday) {
-        return true;
+    for (MonthDay monthDay : monthDays) {
+      LocalDate firstDayOfMonth = new LocalDate(year, monthDay.getMonthOfYear(), 1, chronology);
+      if (monthDay.getDayOfMonth() <= firstDayOfMonth.dayOfMonth().getMaximumValue()) {
+        days.set(firstDayOfMonth.withDayOfMonth(monthDay.getDayOfMonth()).getDayOfYear());
       }
     }
 
-    return false;
+    for (WeekdayOfWeekOfMonth weekdayOfWeekOfMonth : weekdayOfWeekOfMonths) {
+      LocalDate date = weekdayOfWeekOfMonth.toLocalDate(year);
+      if (date.getYear() == year) {
+        days.set(date.getDayOfYear());
+      }
+    }
+    return days;
   }
 
   public static class Builder {
@@ -118,17 +198,26 @@ public class Suspension {
       DateTime toDt = to.toDateTime(dateTime);
 
       // to.isBefore(from) if true means that from today to tomorrow
-      // for example 3:00-2:00 means that from 3:00 of today to 2:00 of tomorrow
+      // for example 3:00-2:00 means that from 3:00 of today to 2:00 of tomorrow,
+      // so both [3:00, 24:00) and [0:00, 2:00) of the same day are contained
       if (toDt.isBefore(fromDt)) {
-        toDt = toDt.plusDays(1);
+        return !dateTime.isBefore(fromDt) || dateTime.isBefore(toDt);
       }
 
       // if from <= datetime < to, return true
-      if ((dateTime.isEqual(fromDt) || dateTime.isAfter(fromDt)) && dateTime.isBefore(toDt)) {
-        return true;
-      }
+      return !dateTime.isBefore(fromDt) && dateTime.isBefore(toDt);
+    }
+
+    void fill(BitSet seconds) {
+      int fromSecond = from.getMillisOfDay() / 1000;
+      int toSecond = to.getMillisOfDay() / 1000;
 
-      return false;
+      if (toSecond < fromSecond) {
+        seconds.set(fromSecond, SECONDS_PER_DAY);
+        seconds.set(0, toSecond);
+      } else {
+        seconds.set(fromSecond, toSecond);
+      }
     }
   }
 
@@ -153,4 +242,16 @@ public class Suspension {
     }
   }
 
+  private static class SuspendedDays {
+    final int year;
+    final BitSet days;
+    // 之前编译的另一年
+    final SuspendedDays previous;
+
+    SuspendedDays(int year, BitSet days, @Nullable SuspendedDays previous) {
+      this.year = year;
+      this.days = days;
+      this.previous = previous;
+    }
+  }
 }
@@ -1,5 +1,8 @@
 package com.topsoft.search.solr.schedule;
 
+import javax.annotation.Nullable;
+import java.util.Date;
+
 /**
  * @author wangyg
  */
@@ -11,4 +14,13 @@ public interface Trigger {
   long getRepeatMillis();
 
   boolean shouldSuspendNow();
+
+  /**
+   * 计算下一次执行时间，{@link Scheduler} 每次执行结束后调用并据此安排下一次执行
+   *
+   * @param lastFireTime 上一次计划的执行时间，第一次调用时为 {@code null}
+   * @return 下一次执行时间，返回 {@code null} 表示不再执行
+   */
+  @Nullable
+  Date nextFireTime(@Nullable Date lastFireTime);
 }
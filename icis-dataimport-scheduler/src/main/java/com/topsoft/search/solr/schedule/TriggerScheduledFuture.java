@@ -0,0 +1,27 @@
+package com.topsoft.search.solr.schedule;
+
+import javax.annotation.Nullable;
+import java.util.Date;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * 默认的 {@link Scheduler} 的 {@link Scheduler#schedule(Trigger, Runnable)} 返回的 {@link ScheduledFuture}，可以查看下一次执行的时间。
+ * <p>其他 {@link Scheduler} 实现不一定返回该类型，使用前先用 {@code instanceof} 判断:
+ * <pre>
+ * ScheduledFuture&lt;?&gt; future = scheduler.schedule(trigger, command);
+ * if (future instanceof TriggerScheduledFuture) {
+ *   Date nextFireTime = ((TriggerScheduledFuture&lt;?&gt;) future).getNextFireTime();
+ * }
+ * </pre>
+ *
+ * @author wangyg
+ */
+public interface TriggerScheduledFuture<V> extends ScheduledFuture<V> {
+  Trigger getTrigger();
+
+  /**
+   * @return 下一次执行的时间(已跳过暂停时段)，正在执行时为本次执行的计划时间，已取消或不再执行时返回 {@code null}
+   */
+  @Nullable
+  Date getNextFireTime();
+}
@@ -67,9 +67,13 @@ public class DataImportListener implements ServletContextListener {
     if (scheduler != null && !scheduler.isShutdown()) {
       scheduler.shutdown();
       try {
-        scheduler.awaitTermination(10, TimeUnit.SECONDS);
+        // shutdown()不会中断正在等待导入结束的线程，超时后中断这些线程，不在容器关闭后继续查询导入状态
+        if (!scheduler.awaitTermination(10, TimeUnit.SECONDS)) {
+          scheduler.shutdownNow();
+        }
       } catch (InterruptedException e) {
         scheduler.shutdownNow();
+        Thread.currentThread().interrupt();
       }
     }
     // clean up servlet context
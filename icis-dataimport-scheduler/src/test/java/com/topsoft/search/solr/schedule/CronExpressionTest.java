@@ -0,0 +1,112 @@
+package com.topsoft.search.solr.schedule;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Test;
+
+import java.util.Date;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author wangyg
+ */
+public class CronExpressionTest {
+  private static final DateTimeZone SHANGHAI = DateTimeZone.forID("Asia/Shanghai");
+  private static final DateTimeZone NEW_YORK = DateTimeZone.forID("America/New_York");
+
+  @Test
+  public void testFiveFields() {
+    CronExpression cron = CronExpression.parse("30 2 * * *", SHANGHAI);
+    assertThat(next(cron, "2013-09-01T02:30:00"), is(time("2013-09-02T02:30:00", SHANGHAI)));
+    assertThat(next(cron, "2013-09-01T02:29:59"), is(time("2013-09-01T02:30:00", SHANGHAI)));
+  }
+
+  @Test
+  public void testStep() {
+    CronExpression cron = CronExpression.parse("5/15 * * * * ?", SHANGHAI);
+    assertThat(next(cron, "2013-09-01T12:00:00"), is(time("2013-09-01T12:00:05", SHANGHAI)));
+    assertThat(next(cron, "2013-09-01T12:00:50"), is(time("2013-09-01T12:01:05", SHANGHAI)));
+
+    cron = CronExpression.parse("0 */5 * * * ?", SHANGHAI);
+    assertThat(next(cron, "2013-09-01T23:58:00"), is(time("2013-09-02T00:00:00", SHANGHAI)));
+  }
+
+  @Test
+  public void testDayOfMonthOrDayOfWeek() {
+    // 2013-09-01为周日
+    CronExpression cron = CronExpression.parse("0 0 0 10 * MON", SHANGHAI);
+    assertThat(next(cron, "2013-09-01T00:00:00"), is(time("2013-09-02T00:00:00", SHANGHAI)));
+    assertThat(next(cron, "2013-09-09T00:00:00"), is(time("2013-09-10T00:00:00", SHANGHAI)));
+    assertThat(next(cron, "2013-09-10T00:00:00"), is(time("2013-09-16T00:00:00", SHANGHAI)));
+  }
+
+  @Test
+  public void testDayOfWeek() {
+    assertThat(next(CronExpression.parse("0 0 0 ? * 7", SHANGHAI), "2013-09-02T00:00:00"),
+        is(time("2013-09-08T00:00:00", SHANGHAI)));
+    assertThat(next(CronExpression.parse("0 0 0 ? * 0", SHANGHAI), "2013-09-02T00:00:00"),
+        is(time("2013-09-08T00:00:00", SHANGHAI)));
+
+    CronExpression cron = CronExpression.parse("0 0 9 ? * mon-fri", SHANGHAI);
+    assertThat(next(cron, "2013-09-06T09:00:00"), is(time("2013-09-09T09:00:00", SHANGHAI)));
+    assertThat(next(cron, "2013-09-09T09:00:00"), is(time("2013-09-10T09:00:00", SHANGHAI)));
+  }
+
+  @Test
+  public void testMonthNames() {
+    CronExpression cron = CronExpression.parse("0 0 0 1 JAN,JUL ?", SHANGHAI);
+    assertThat(next(cron, "2013-02-01T00:00:00"), is(time("2013-07-01T00:00:00", SHANGHAI)));
+    assertThat(next(cron, "2013-07-01T00:00:00"), is(time("2014-01-01T00:00:00", SHANGHAI)));
+  }
+
+  @Test
+  public void testLeapDay() {
+    // 2100年不是闰年
+    CronExpression cron = CronExpression.parse("0 0 0 29 2 ?", SHANGHAI);
+    assertThat(next(cron, "2097-03-01T00:00:00"), is(time("2104-02-29T00:00:00", SHANGHAI)));
+    assertThat(next(cron, "2096-03-01T00:00:00"), is(time("2104-02-29T00:00:00", SHANGHAI)));
+  }
+
+  @Test
+  public void testNeverFires() {
+    assertThat(next(CronExpression.parse("0 0 0 30 2 ?", SHANGHAI), "2013-09-01T00:00:00"), nullValue());
+  }
+
+  @Test
+  public void testDaylightSavingGap() {
+    // 2013-03-10 02:00 EST 跳到 03:00 EDT
+    CronExpression cron = CronExpression.parse("0 30 2 * * ?", NEW_YORK);
+    Date fireTime = cron.next(time("2013-03-09T03:00:00", NEW_YORK));
+    assertThat(fireTime, is(time("2013-03-11T02:30:00", NEW_YORK)));
+  }
+
+  @Test
+  public void testDaylightSavingOverlap() {
+    // 2013-11-03 02:00 EDT 回到 01:00 EST，01:30只执行一次
+    CronExpression cron = CronExpression.parse("0 30 1 * * ?", NEW_YORK);
+    Date first = cron.next(time("2013-11-02T12:00:00", NEW_YORK));
+    assertThat(first, is(new DateTime("2013-11-03T01:30:00-04:00").toDate()));
+    assertThat(cron.next(first), is(time("2013-11-04T01:30:00", NEW_YORK)));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testIllegalFieldCount() {
+    CronExpression.parse("0 0 * *");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testIllegalValue() {
+    CronExpression.parse("0 0 24 * * ?");
+  }
+
+  private static Date next(CronExpression cron, String after) {
+    return cron.next(time(after, cron.getZone()));
+  }
+
+  private static Date time(String localTime, DateTimeZone zone) {
+    return new DateTime(localTime, zone).toDate();
+  }
+}
@@ -0,0 +1,101 @@
+package com.topsoft.search.solr.schedule;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static com.topsoft.search.solr.schedule.DataImportCoordinator.Decision.*;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author wangyg
+ */
+public class DataImportCoordinatorTest {
+  private final List<Runnable> submitted = new ArrayList<Runnable>();
+  private final Runnable delta = new Job();
+  private final Runnable full = new Job();
+  private DataImportCoordinator coordinator;
+
+  @Before
+  public void setUp() {
+    coordinator = new DataImportCoordinator(new Executor() {
+      @Override
+      public void execute(Runnable command) {
+        submitted.add(command);
+      }
+    });
+  }
+
+  @Test
+  public void testPendingDeltaImport() {
+    assertThat(coordinator.acquire(false, new Job()), is(RUN));
+    assertThat(coordinator.acquire(false, delta), is(PENDING));
+    assertThat(coordinator.acquire(false, new Job()), is(SKIPPED));
+
+    coordinator.release();
+    assertThat(submitted.size(), is(1));
+    assertThat(submitted.get(0), sameInstance(delta));
+    assertThat(coordinator.isRunning(), is(true));
+
+    coordinator.release();
+    assertThat(submitted.size(), is(1));
+    assertThat(coordinator.isRunning(), is(false));
+  }
+
+  @Test
+  public void testFullImportSupersedesPendingDeltaImport() {
+    assertThat(coordinator.acquire(false, new Job()), is(RUN));
+    assertThat(coordinator.acquire(false, delta), is(PENDING));
+    assertThat(coordinator.acquire(true, full), is(PENDING));
+    assertThat(coordinator.acquire(true, new Job()), is(SKIPPED));
+    assertThat(coordinator.acquire(false, new Job()), is(SKIPPED));
+
+    coordinator.release();
+    assertThat(submitted.size(), is(1));
+    assertThat(submitted.get(0), sameInstance(full));
+
+    // 全量导入执行期间增量导入直接跳过
+    assertThat(coordinator.acquire(false, new Job()), is(SKIPPED));
+  }
+
+  @Test
+  public void testFullImportWaitsForRunningFullImport() {
+    assertThat(coordinator.acquire(true, new Job()), is(RUN));
+    assertThat(coordinator.acquire(false, new Job()), is(SKIPPED));
+    assertThat(coordinator.acquire(true, full), is(PENDING));
+
+    coordinator.release();
+    assertThat(submitted.get(0), sameInstance(full));
+    coordinator.release();
+    assertThat(coordinator.acquire(false, delta), is(RUN));
+  }
+
+  @Test
+  public void testRejectedPendingImport() {
+    coordinator = new DataImportCoordinator(new Executor() {
+      @Override
+      public void execute(Runnable command) {
+        throw new RejectedExecutionException();
+      }
+    });
+
+    assertThat(coordinator.acquire(false, new Job()), is(RUN));
+    assertThat(coordinator.acquire(true, full), is(PENDING));
+    coordinator.release();
+
+    assertThat(coordinator.isRunning(), is(false));
+    assertThat(coordinator.acquire(false, delta), is(RUN));
+  }
+
+  private static class Job implements Runnable {
+    @Override
+    public void run() {
+    }
+  }
+}
@@ -0,0 +1,80 @@
+package com.topsoft.search.solr.schedule;
+
+import org.joda.time.DateTime;
+import org.joda.time.LocalTime;
+import org.junit.Test;
+
+import java.util.Date;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author wangyg
+ */
+public class SuspensionTest {
+
+  @Test
+  public void testTimeRange() {
+    Suspension suspension = Suspension.builder().addTimeRange(new LocalTime(2, 0), new LocalTime(3, 0)).build();
+
+    assertThat(suspension.shouldSuspend(time(2013, 9, 2, 1, 59, 59)), is(false));
+    assertThat(suspension.shouldSuspend(time(2013, 9, 2, 2, 0, 0)), is(true));
+    assertThat(suspension.shouldSuspend(time(2013, 9, 2, 2, 59, 59)), is(true));
+    assertThat(suspension.shouldSuspend(time(2013, 9, 2, 3, 0, 0)), is(false));
+  }
+
+  @Test
+  public void testTimeRangeWrapsMidnight() {
+    // 23:00到次日6:00，同一天的[23:00, 24:00)和[0:00, 6:00)都暂停
+    Suspension suspension = Suspension.builder().addTimeRange(new LocalTime(23, 0), new LocalTime(6, 0)).build();
+
+    assertThat(suspension.shouldSuspend(time(2013, 9, 2, 22, 59, 59)), is(false));
+    assertThat(suspension.shouldSuspend(time(2013, 9, 2, 23, 0, 0)), is(true));
+    assertThat(suspension.shouldSuspend(time(2013, 9, 2, 23, 59, 59)), is(true));
+    assertThat(suspension.shouldSuspend(time(2013, 9, 3, 0, 0, 0)), is(true));
+    assertThat(suspension.shouldSuspend(time(2013, 9, 3, 2, 0, 0)), is(true));
+    assertThat(suspension.shouldSuspend(time(2013, 9, 3, 5, 59, 59)), is(true));
+    assertThat(suspension.shouldSuspend(time(2013, 9, 3, 6, 0, 0)), is(false));
+  }
+
+  @Test
+  public void testNextUnsuspendedTime() {
+    // 2013-09-07为周六
+    Suspension suspension = Suspension.builder()
+        .addTimeRange(new LocalTime(23, 0), new LocalTime(6, 0))
+        .addWeekDay(7)
+        .build();
+
+    Date date = time(2013, 9, 6, 12, 0, 0);
+    assertThat(suspension.nextUnsuspendedTime(date), is(date));
+    assertThat(suspension.nextUnsuspendedTime(time(2013, 9, 6, 23, 30, 0)), is(time(2013, 9, 7, 6, 0, 0)));
+    assertThat(suspension.nextUnsuspendedTime(time(2013, 9, 7, 23, 30, 0)), is(time(2013, 9, 9, 6, 0, 0)));
+  }
+
+  @Test
+  public void testYearBoundary() {
+    Suspension suspension = Suspension.builder().addMonthDay(12, 31).addMonthDay(1, 1).build();
+
+    for (int i = 0; i < 2; i++) {
+      assertThat(suspension.shouldSuspend(time(2013, 12, 31, 12, 0, 0)), is(true));
+      assertThat(suspension.shouldSuspend(time(2014, 1, 1, 12, 0, 0)), is(true));
+      assertThat(suspension.shouldSuspend(time(2014, 1, 2, 12, 0, 0)), is(false));
+    }
+    assertThat(suspension.nextUnsuspendedTime(time(2013, 12, 31, 12, 0, 0)), is(time(2014, 1, 2, 0, 0, 0)));
+  }
+
+  @Test
+  public void testAlwaysSuspended() {
+    Suspension.Builder builder = Suspension.builder();
+    for (int weekday = 1; weekday <= 7; weekday++) {
+      builder.addWeekDay(weekday);
+    }
+    assertThat(builder.build().nextUnsuspendedTime(time(2013, 9, 2, 0, 0, 0)), nullValue());
+  }
+
+  private static Date time(int year, int month, int day, int hour, int minute, int second) {
+    return new DateTime(year, month, day, hour, minute, second).toDate();
+  }
+}
@@ -2,16 +2,21 @@ package com.topsoft.search.icis.ecps;
 
 import com.google.common.base.Function;
 import com.topsoft.search.PagableSolrMultiCoreQuery;
+import com.topsoft.search.QueryPreProcessor;
 import com.topsoft.search.SolrCoreQueryRequest;
+import com.topsoft.search.domain.HighlightFields;
 import com.topsoft.search.domain.HighlightWrapper;
 import com.topsoft.search.domain.Page;
 import com.topsoft.search.domain.PageRequest;
 import com.topsoft.search.domain.Pageable;
+import com.topsoft.search.domain.Sort;
 import com.topsoft.search.domain.Sort.Order;
+import com.topsoft.search.support.FieldListQueryPreProcessor;
 import com.topsoft.search.support.HighlightParameters;
 import com.topsoft.search.support.HighlightQueryPreProcessor;
 import com.topsoft.search.support.HighlightWrapperResultTransformer;
 import com.topsoft.search.support.PagedSolrQueryProfile;
+import com.topsoft.search.support.QueryPreProcessors;
 import org.apache.solr.common.SolrDocument;
 
 import javax.annotation.Nullable;
@@ -62,18 +67,29 @@ public class NationalSolrEnterpriseQuery implements INationalSolrEnterpriseQuery
 
   };
 
-  // 设置高亮参数
-  private static final HighlightQueryPreProcessor preProcessor = new HighlightQueryPreProcessor(HighlightParameters.builder()
-      .setFields("entName", "regNo")
-      .setFragsize(100)
-      .setSnippets(1)
-      .setRequireFieldMatch(true)
-      .setSimplePre("<span class=\"" + HIGHLIGHT_CSS_CLASSNAME + "\">")
-      .setSimplePost("</span>")
-      .build());
+  // 设置高亮参数，并只返回rowTransformer读取的字段
+  private static final QueryPreProcessor preProcessor = QueryPreProcessors.chain(
+      new FieldListQueryPreProcessor("id", "entName", "regNo", "leRep", "regOrgName", "estDate", "entType", "uuid"),
+      new HighlightQueryPreProcessor(HighlightParameters.builder()
+          .setFields("entName", "regNo")
+          .setFragsize(100)
+          .setSnippets(1)
+          .setRequireFieldMatch(true)
+          .setSimplePre("<span class=\"" + HIGHLIGHT_CSS_CLASSNAME + "\">")
+          .setSimplePost("</span>")
+          .build()));
+
+  // 名称长度升序、成立日期降序
+  private static final Sort ENT_SORT = Sort.of("entNameLength", Order.asc, "estDate", Order.desc).intern();
+
+  // 高亮字段及其下标
+  private static final HighlightFields highlightFields = HighlightFields.of("entName", "regNo");
+  private static final int ENT_NAME = highlightFields.indexOf("entName");
+  private static final int REG_NO = highlightFields.indexOf("regNo");
 
   // 根据highlight信息对结果集自动封装为HighlightWrapper<T>对象
-  private static final HighlightWrapperResultTransformer<NationalEntBaseInfoBean> Htransformer = new HighlightWrapperResultTransformer<NationalEntBaseInfoBean>("id", rowTransformer);
+  private static final HighlightWrapperResultTransformer<NationalEntBaseInfoBean> Htransformer =
+      new HighlightWrapperResultTransformer<NationalEntBaseInfoBean>("id", rowTransformer, highlightFields, false);
 
   public NationalSolrEnterpriseQuery(final String baseURL) {
     this.query = new PagableSolrMultiCoreQuery(baseURL);
@@ -81,7 +97,7 @@ public class NationalSolrEnterpriseQuery implements INationalSolrEnterpriseQuery
 
   @Override
   public List<NationalEntBaseInfo> find(String keyword) {
-    Pageable pageRequest = PageRequest.builder(PageRequest.DEFAULT_PAGE, 5).orderBy("entNameLength", Order.asc).orderBy("estDate", Order.desc).build();
+    Pageable pageRequest = new PageRequest(PageRequest.DEFAULT_PAGE, 5, ENT_SORT);
     // 分页查询
     PagedSolrQueryProfile<HighlightWrapper<NationalEntBaseInfoBean>> profile = new PagedSolrQueryProfile<HighlightWrapper<NationalEntBaseInfoBean>>(preProcessor, Htransformer, pageRequest);
     Page<HighlightWrapper<NationalEntBaseInfoBean>> page = query.findFrom(getCoreName(), buildQueryString(keyword), profile);
@@ -89,14 +105,14 @@ public class NationalSolrEnterpriseQuery implements INationalSolrEnterpriseQuery
     if (page.getNumberOfElements() > 0) {
       for (HighlightWrapper<NationalEntBaseInfoBean> info : page) {
         NationalEntBaseInfoBean bean = info.getBean();
-        Map<String, String> highlights = info.getHighlights();
-
-        if (highlights.containsKey("entName")) {
-          bean.setEntName(highlights.get("entName"));
+        String entName = info.getHighlight(ENT_NAME);
+        if (entName != null) {
+          bean.setEntName(entName);
         }
 
-        if (highlights.containsKey("regNo")){
-          bean.setRegNo(highlights.get("regNo"));
+        String regNo = info.getHighlight(REG_NO);
+        if (regNo != null) {
+          bean.setRegNo(regNo);
         }
 
         list.add(bean);
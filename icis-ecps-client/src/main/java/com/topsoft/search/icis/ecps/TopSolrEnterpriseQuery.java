@@ -12,18 +12,26 @@ import org.apache.solr.common.SolrDocument;
 
 import com.google.common.base.Function;
 import com.topsoft.search.PagableSolrMultiCoreQuery;
+import com.topsoft.search.QueryPreProcessor;
+import com.topsoft.search.ResultTransformer;
 import com.topsoft.search.SolrCoreQueryRequest;
 import com.topsoft.search.SolrMultiCoreQuery;
+import com.topsoft.search.SolrMultiCoreQueryTemplate;
+import com.topsoft.search.domain.HighlightFields;
 import com.topsoft.search.domain.HighlightWrapper;
 import com.topsoft.search.domain.Page;
 import com.topsoft.search.domain.PageRequest;
 import com.topsoft.search.domain.Pageable;
-import com.topsoft.search.domain.Pages;
+import com.topsoft.search.domain.Sort;
 import com.topsoft.search.domain.Sort.Order;
+import com.topsoft.search.support.FieldListQueryPreProcessor;
+import com.topsoft.search.support.GenericSolrQueryProfile;
+import com.topsoft.search.support.GuavaFunctionResultTransformer;
 import com.topsoft.search.support.HighlightParameters;
 import com.topsoft.search.support.HighlightQueryPreProcessor;
 import com.topsoft.search.support.HighlightWrapperResultTransformer;
 import com.topsoft.search.support.PagedSolrQueryProfile;
+import com.topsoft.search.support.QueryPreProcessors;
 
 /**
  * 拓普企业信用公示系统-企业信息查询
@@ -66,12 +74,31 @@ public class TopSolrEnterpriseQuery implements ITopSolrEnterpriseQuery, SolrCore
 		
 	};
 	
-	private static final HighlightWrapperResultTransformer<TopEntBaseInfoBean> highligthTransformer = new HighlightWrapperResultTransformer<TopEntBaseInfoBean>("id", rowTransformer);
+	// rowTransformer读取的字段，其他存储字段不再返回
+	private static final FieldListQueryPreProcessor rowFields = new FieldListQueryPreProcessor("id", "entName", "regNo", "leRep",
+			"opLocOrDom", "regCap", "regCapCurName", "industryPhyName", "estDate");
+
+	private static final GenericSolrQueryProfile<TopEntBaseInfoBean> rowProfile = new GenericSolrQueryProfile<TopEntBaseInfoBean>(
+			QueryPreProcessors.chain(QueryPreProcessor.DEFAULT, rowFields), new GuavaFunctionResultTransformer<TopEntBaseInfoBean>(rowTransformer));
+
+	// 名称长度升序、成立日期降序，共用同一个已生成sort参数的实例
+	private static final Sort ENT_SORT = Sort.of("entNameLength", Order.asc, "estDate", Order.desc).intern();
+
+	// 高亮字段及其下标
+	private static final HighlightFields highlightFields = HighlightFields.of("entName", "leRep", "domOrOpLoc");
+	private static final int ENT_NAME = highlightFields.indexOf("entName");
+	private static final int LE_REP = highlightFields.indexOf("leRep");
+	private static final int DOM_OR_OP_LOC = highlightFields.indexOf("domOrOpLoc");
+
+	private static final HighlightWrapperResultTransformer<TopEntBaseInfoBean> highligthTransformer =
+			new HighlightWrapperResultTransformer<TopEntBaseInfoBean>("id", rowTransformer, highlightFields, false);
 
 	public TopSolrEnterpriseQuery(final String baseURL) {
 		super();
-		this.pageQuery = new PagableSolrMultiCoreQuery(baseURL);
-		this.query = new SolrMultiCoreQuery(baseURL);
+		// 大量用户同时执行相同的查询时，只向solr发送一次请求
+		SolrMultiCoreQueryTemplate template = SolrMultiCoreQueryTemplate.builder(baseURL).setCoalesceRequests(true).build();
+		this.pageQuery = new PagableSolrMultiCoreQuery(template);
+		this.query = new SolrMultiCoreQuery(template);
 	}
 
 	@Override
@@ -84,20 +111,18 @@ public class TopSolrEnterpriseQuery implements ITopSolrEnterpriseQuery, SolrCore
 			int currentPage, int pageSize) {
 		Pageable pageRequest = QueryProfile.getPageRequest(currentPage,
 				pageSize);
-		PagedSolrQueryProfile<HighlightWrapper<TopEntBaseInfoBean>> profile = new PagedSolrQueryProfile<HighlightWrapper<TopEntBaseInfoBean>>(
-				QueryProfile.BYNAME.getPreProcessor(), highligthTransformer,
+		PagedSolrQueryProfile<TopEntBaseInfo> profile = new PagedSolrQueryProfile<TopEntBaseInfo>(
+				QueryProfile.BYNAME.getPreProcessor(), QueryProfile.BYNAME.getTransformer(),
 				pageRequest);
-		Page<HighlightWrapper<TopEntBaseInfoBean>> page = pageQuery.findFrom(
+		return pageQuery.findFrom(
 				getCoreName(),
 				QueryProfile.BYNAME.buildQueryStr(new String[] { keyword }),
 				profile);
-		return Pages.of(QueryProfile.BYNAME.injectHighlightInfo(page),
-				pageRequest, page.getTotalElements());
 	}
 
 	@Override
 	public List<TopEntBaseInfo> findByRegNo(String regNo) {
-		List<TopEntBaseInfoBean> list = query.findAllFrom(getCoreName(), "regNo:" + regNo, getRowTransformer());
+		List<TopEntBaseInfoBean> list = query.findAllFrom(getCoreName(), "regNo:" + regNo, rowProfile);
 		return new ArrayList<TopEntBaseInfo>(list);
 	}
 
@@ -105,30 +130,26 @@ public class TopSolrEnterpriseQuery implements ITopSolrEnterpriseQuery, SolrCore
 	public Page<TopEntBaseInfo> findByLeRep(String keyword, int currentPage, int pageSize) {
 		Pageable pageRequest = QueryProfile.getPageRequest(currentPage,
 				pageSize);
-		PagedSolrQueryProfile<HighlightWrapper<TopEntBaseInfoBean>> profile = new PagedSolrQueryProfile<HighlightWrapper<TopEntBaseInfoBean>>(
-				QueryProfile.BYLEREP.getPreProcessor(), highligthTransformer,
+		PagedSolrQueryProfile<TopEntBaseInfo> profile = new PagedSolrQueryProfile<TopEntBaseInfo>(
+				QueryProfile.BYLEREP.getPreProcessor(), QueryProfile.BYLEREP.getTransformer(),
 				pageRequest);
-		Page<HighlightWrapper<TopEntBaseInfoBean>> page = pageQuery.findFrom(
+		return pageQuery.findFrom(
 				getCoreName(),
 				QueryProfile.BYLEREP.buildQueryStr(new String[] { keyword }),
 				profile);
-		return Pages.of(QueryProfile.BYLEREP.injectHighlightInfo(page),
-				pageRequest, page.getTotalElements());
 	}
 
 	@Override
 	public Page<TopEntBaseInfo> findByOpLoc(String keyword, int currentPage, int pageSize) {
 		Pageable pageRequest = QueryProfile.getPageRequest(currentPage,
 				pageSize);
-		PagedSolrQueryProfile<HighlightWrapper<TopEntBaseInfoBean>> profile = new PagedSolrQueryProfile<HighlightWrapper<TopEntBaseInfoBean>>(
-				QueryProfile.BYOPLOC.getPreProcessor(), highligthTransformer,
+		PagedSolrQueryProfile<TopEntBaseInfo> profile = new PagedSolrQueryProfile<TopEntBaseInfo>(
+				QueryProfile.BYOPLOC.getPreProcessor(), QueryProfile.BYOPLOC.getTransformer(),
 				pageRequest);
-		Page<HighlightWrapper<TopEntBaseInfoBean>> page = pageQuery.findFrom(
+		return pageQuery.findFrom(
 				getCoreName(),
 				QueryProfile.BYOPLOC.buildQueryStr(new String[] { keyword }),
 				profile);
-		return Pages.of(QueryProfile.BYOPLOC.injectHighlightInfo(page),
-				pageRequest, page.getTotalElements());
 	}
 
 	@Override
@@ -161,13 +182,11 @@ public class TopSolrEnterpriseQuery implements ITopSolrEnterpriseQuery, SolrCore
 		}
 		Pageable pageRequest = QueryProfile.getPageRequest(currentPage,
 				pageSize);
-		PagedSolrQueryProfile<HighlightWrapper<TopEntBaseInfoBean>> profile = new PagedSolrQueryProfile<HighlightWrapper<TopEntBaseInfoBean>>(
-				QueryProfile.ADVANCED.getPreProcessor(), highligthTransformer,
+		PagedSolrQueryProfile<TopEntBaseInfo> profile = new PagedSolrQueryProfile<TopEntBaseInfo>(
+				QueryProfile.ADVANCED.getPreProcessor(), QueryProfile.ADVANCED.getTransformer(),
 				pageRequest);
-		Page<HighlightWrapper<TopEntBaseInfoBean>> page = pageQuery.findFrom(
+		return pageQuery.findFrom(
 				getCoreName(), queryStr.toString(),	profile);
-		return Pages.of(QueryProfile.ADVANCED.injectHighlightInfo(page),
-				pageRequest, page.getTotalElements());
 	}
 
 	@Override
@@ -199,19 +218,15 @@ public class TopSolrEnterpriseQuery implements ITopSolrEnterpriseQuery, SolrCore
 			      .setSimplePre("<span class=\"" + HIGHLIGHT_CSS_CLASSNAME + "\">")
 			      .setSimplePost("</span>")
 			      .build()),
-			   new Function<Page<HighlightWrapper<TopEntBaseInfoBean>>, List<TopEntBaseInfo>>() {
+			   new Function<HighlightWrapper<TopEntBaseInfoBean>, TopEntBaseInfo>() {
 			
 					@Override
 					@Nullable
-					public List<TopEntBaseInfo> apply(
-							@Nullable Page<HighlightWrapper<TopEntBaseInfoBean>> input) {
-						List<TopEntBaseInfo> list = new ArrayList<TopEntBaseInfo>();
-					    for (HighlightWrapper<TopEntBaseInfoBean> info : input) {
-					    	TopEntBaseInfoBean bean = info.getBean();
-					    	bean.setEntName(info.getHighlights().get("entName"));
-					    	list.add(bean);
-					    }
-					    return list;
+					public TopEntBaseInfo apply(
+							@Nullable HighlightWrapper<TopEntBaseInfoBean> info) {
+						TopEntBaseInfoBean bean = info.getBean();
+						bean.setEntName(info.getHighlight(ENT_NAME));
+						return bean;
 					}		
 					
 				},
@@ -233,19 +248,15 @@ public class TopSolrEnterpriseQuery implements ITopSolrEnterpriseQuery, SolrCore
 			      .setSimplePre("<span class=\"" + HIGHLIGHT_CSS_CLASSNAME + "\">")
 			      .setSimplePost("</span>")
 			      .build()),
-			   new Function<Page<HighlightWrapper<TopEntBaseInfoBean>>, List<TopEntBaseInfo>>() {
+			   new Function<HighlightWrapper<TopEntBaseInfoBean>, TopEntBaseInfo>() {
 			
 					@Override
 					@Nullable
-					public List<TopEntBaseInfo> apply(
-							@Nullable Page<HighlightWrapper<TopEntBaseInfoBean>> input) {
-						List<TopEntBaseInfo> list = new ArrayList<TopEntBaseInfo>();
-					    for (HighlightWrapper<TopEntBaseInfoBean> info : input) {
-					    	TopEntBaseInfoBean bean = info.getBean();
-					    	bean.setLeRep(info.getHighlights().get("leRep"));
-					    	list.add(bean);
-					    }
-					    return list;
+					public TopEntBaseInfo apply(
+							@Nullable HighlightWrapper<TopEntBaseInfoBean> info) {
+						TopEntBaseInfoBean bean = info.getBean();
+						bean.setLeRep(info.getHighlight(LE_REP));
+						return bean;
 					}		
 					
 				},
@@ -267,19 +278,15 @@ public class TopSolrEnterpriseQuery implements ITopSolrEnterpriseQuery, SolrCore
 			      .setSimplePre("<span class=\"" + HIGHLIGHT_CSS_CLASSNAME + "\">")
 			      .setSimplePost("</span>")
 			      .build()),
-			   new Function<Page<HighlightWrapper<TopEntBaseInfoBean>>, List<TopEntBaseInfo>>() {
+			   new Function<HighlightWrapper<TopEntBaseInfoBean>, TopEntBaseInfo>() {
 			
 					@Override
 					@Nullable
-					public List<TopEntBaseInfo> apply(
-							@Nullable Page<HighlightWrapper<TopEntBaseInfoBean>> input) {
-						List<TopEntBaseInfo> list = new ArrayList<TopEntBaseInfo>();
-					    for (HighlightWrapper<TopEntBaseInfoBean> info : input) {
-					    	TopEntBaseInfoBean bean = info.getBean();
-					    	bean.setOpLocOrDom(info.getHighlights().get("domOrOpLoc"));
-					    	list.add(bean);
-					    }
-					    return list;
+					public TopEntBaseInfo apply(
+							@Nullable HighlightWrapper<TopEntBaseInfoBean> info) {
+						TopEntBaseInfoBean bean = info.getBean();
+						bean.setOpLocOrDom(info.getHighlight(DOM_OR_OP_LOC));
+						return bean;
 					}		
 					
 				},
@@ -301,39 +308,36 @@ public class TopSolrEnterpriseQuery implements ITopSolrEnterpriseQuery, SolrCore
 			      .setSimplePre("<span class=\"" + HIGHLIGHT_CSS_CLASSNAME + "\">")
 			      .setSimplePost("</span>")
 			      .build()),
-			   new Function<Page<HighlightWrapper<TopEntBaseInfoBean>>, List<TopEntBaseInfo>>() {
+			   new Function<HighlightWrapper<TopEntBaseInfoBean>, TopEntBaseInfo>() {
 			
 					@Override
 					@Nullable
-					public List<TopEntBaseInfo> apply(
-							@Nullable Page<HighlightWrapper<TopEntBaseInfoBean>> input) {
-						List<TopEntBaseInfo> list = new ArrayList<TopEntBaseInfo>();
-					    for (HighlightWrapper<TopEntBaseInfoBean> info : input) {
-					    	TopEntBaseInfoBean bean = info.getBean();
-					    	bean.setEntName(info.getHighlights().get("entName"));
-					    	bean.setLeRep(info.getHighlights().get("leRep"));
-					    	bean.setOpLocOrDom(info.getHighlights().get("domOrOpLoc"));
-					    	list.add(bean);
-					    }
-					    return list;
+					public TopEntBaseInfo apply(
+							@Nullable HighlightWrapper<TopEntBaseInfoBean> info) {
+						TopEntBaseInfoBean bean = info.getBean();
+						bean.setEntName(info.getHighlight(ENT_NAME));
+						bean.setLeRep(info.getHighlight(LE_REP));
+						bean.setOpLocOrDom(info.getHighlight(DOM_OR_OP_LOC));
+						return bean;
 					}		
 					
 				},
 				null
 		);
 		
-		private HighlightQueryPreProcessor highlightPreProcessor;
+		private QueryPreProcessor preProcessor;
 		
-		private Function<Page<HighlightWrapper<TopEntBaseInfoBean>>, List<TopEntBaseInfo>> highlightInjector;
+		// 在转换结果的同一次遍历中将高亮内容写回对象
+		private ResultTransformer<List<TopEntBaseInfo>> transformer;
 		
 		private Function<String[], String> queryStrBuilder;
 
-		public HighlightQueryPreProcessor getPreProcessor() {
-			return highlightPreProcessor;
+		public QueryPreProcessor getPreProcessor() {
+			return preProcessor;
 		}
 		
-		public List<TopEntBaseInfo> injectHighlightInfo(Page<HighlightWrapper<TopEntBaseInfoBean>> page) {
-			return highlightInjector.apply(page);
+		public ResultTransformer<List<TopEntBaseInfo>> getTransformer() {
+			return transformer;
 		}
 		
 		public String buildQueryStr(String[] input) {
@@ -341,13 +345,13 @@ public class TopSolrEnterpriseQuery implements ITopSolrEnterpriseQuery, SolrCore
 		}		
 
 		static Pageable getPageRequest(int currentPage, int pageSize) {
-			return PageRequest.builder(currentPage, pageSize).orderBy("entNameLength", Order.asc).orderBy("estDate", Order.desc).build();
+			return new PageRequest(currentPage, pageSize, ENT_SORT);
 		}
 
 		private QueryProfile(
-				HighlightQueryPreProcessor highlightPreProcessor, Function<Page<HighlightWrapper<TopEntBaseInfoBean>>, List<TopEntBaseInfo>> highlightInjector, Function<String[], String> queryStrBuilder) {
-			this.highlightPreProcessor = highlightPreProcessor;
-			this.highlightInjector = highlightInjector;
+				HighlightQueryPreProcessor highlightPreProcessor, Function<HighlightWrapper<TopEntBaseInfoBean>, TopEntBaseInfo> highlightInjector, Function<String[], String> queryStrBuilder) {
+			this.preProcessor = QueryPreProcessors.chain(rowFields, highlightPreProcessor);
+			this.transformer = highligthTransformer.andThen(highlightInjector);
 			this.queryStrBuilder = queryStrBuilder;
 		}
 		
@@ -1,13 +1,24 @@
 package com.topsoft.search.icis;
 
 
+import com.google.common.base.Function;
 import com.google.common.base.Strings;
-import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.topsoft.search.MultiCoreResult;
 import com.topsoft.search.PagableSolrMultiCoreQuery;
+import com.topsoft.search.QueryExecutors;
+import com.topsoft.search.QueryPreProcessor;
+import com.topsoft.search.QueryResultCache;
 import com.topsoft.search.SolrCoreQueryRequest;
 import com.topsoft.search.domain.Page;
 import com.topsoft.search.domain.Pageable;
+import com.topsoft.search.support.GenericSolrQueryProfile;
+import com.topsoft.search.support.GuavaFunctionResultTransformer;
 import com.topsoft.search.support.Ids;
+import com.topsoft.search.support.LongList;
+import com.topsoft.search.support.PagedSolrQueryProfile;
+import com.topsoft.search.support.QueryPreProcessors;
 
 import java.util.HashMap;
 import java.util.List;
@@ -15,11 +26,12 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static com.google.common.base.Preconditions.*;
 import static com.google.common.collect.Lists.*;
 import static com.google.common.collect.Maps.newHashMap;
+import static com.google.common.collect.Maps.newLinkedHashMap;
 
 /**
  * 企业名称查重的简易查询类，提供以下查询方法:
@@ -42,6 +54,25 @@ import static com.google.common.collect.Maps.newHashMap;
  *
  *     // 同时查询名称库、关键字库、商标名称库，找出所有与"拓普网络工程有限公司"相关的记录id列表
  *     Map<String, List<Long>> ids = nameVerify.findAllId("拓普网络工程有限公司");
+ *
+ *     // 匹配记录很多时，可将id直接读入LongList，不装箱也不保留solr文档
+ *     LongList ids = nameVerify.findAllLongIdFrom(Core.namestore, "拓普网络");
+ *     boolean found = LongSet.copyOf(ids).contains(12345L);
+ *   }</pre>
+ *
+ * <p>缓存查询结果
+ * <pre>     {@code
+ *     // 同一业务流程中会反复查询相同的名称，可启用客户端结果缓存
+ *     QueryResultCache cache = QueryResultCache.builder().setTtl(5, TimeUnit.MINUTES).build();
+ *     NameVerify nameVerify = new NameVerify("http://192.168.3.17:9081/solr", cache);
+ *
+ *     // 数据导入结束后使缓存失效，导入开始时失效会在导入期间重新缓存旧的结果
+ *     final Runnable invalidator = cache.invalidator("namestore");
+ *     dataImportAction.addCallback(new DataImportCallback() {
+ *       public void onFinished(DataImportResult result) {
+ *         invalidator.run();
+ *       }
+ *     });
  *   }</pre>
  *
  * <p> 多线程并行查询
@@ -101,67 +132,176 @@ import static com.google.common.collect.Maps.newHashMap;
  */
 
 public class NameVerify {
+  private static final GuavaFunctionResultTransformer<Long> ID_TRANSFORMER = new GuavaFunctionResultTransformer<Long>(Ids.GET);
+  // 查询所有记录，只返回id字段
+  private static final GenericSolrQueryProfile<Long> ALL_ID_PROFILE =
+      new GenericSolrQueryProfile<Long>(QueryPreProcessors.chain(QueryPreProcessor.DEFAULT, Ids.ID_ONLY), ID_TRANSFORMER);
+
+  // 缓存的id列表结果的指纹
+  private static final String ALL_ID_FINGERPRINT = "all:fl=id";
+
   private final PagableSolrMultiCoreQuery query;
+  private final QueryResultCache cache;
 
   public NameVerify(String baseURL) {
     this.query = new PagableSolrMultiCoreQuery(baseURL);
+    this.cache = null;
+  }
+
+  /**
+   * 使用结果缓存，{@link #findAllIdFromNamestore}、{@link #findAllIdFrom} 及 {@link #findAllId} 等返回id列表的查询会优先读取缓存
+   *
+   * @param baseURL solr服务器url
+   * @param cache   查询结果缓存，可与其他实例共用
+   */
+  public NameVerify(String baseURL, QueryResultCache cache) {
+    this.query = new PagableSolrMultiCoreQuery(baseURL);
+    this.cache = checkNotNull(cache, "cache must not be null!");
   }
 
   public List<Long> findAllIdFromNamestore(String enterpriseName, String nameDistCode, String industryPhy) {
     String queryString = buildNamestoreQueryString(enterpriseName, nameDistCode, industryPhy);
-    return query.findAllFrom(Core.namestore.getCoreName(), queryString, Ids.GET);
+    return findAllId(Core.namestore.getCoreName(), queryString);
+  }
+
+  /**
+   * 查询名称库，将记录id直接读入 {@link LongList}，适用于匹配记录很多的情况
+   */
+  public LongList findAllLongIdFromNamestore(String enterpriseName, String nameDistCode, String industryPhy) {
+    String queryString = buildNamestoreQueryString(enterpriseName, nameDistCode, industryPhy);
+    return findAllLongId(Core.namestore.getCoreName(), queryString);
   }
 
   public Page<Long> findIdFromNamestore(String enterpriseName, String nameDistCode, String industryPhy, Pageable pageRequest) {
     String queryString = buildNamestoreQueryString(enterpriseName, nameDistCode, industryPhy);
-    return query.findFrom(Core.namestore.getCoreName(), queryString, pageRequest, Ids.GET);
+    return query.findFrom(Core.namestore.getCoreName(), queryString, new PagedSolrQueryProfile<Long>(Ids.ID_ONLY, ID_TRANSFORMER, pageRequest));
   }
 
   public Map<String, List<Long>> findAllId(final String enterpriseName) {
-    return findAllId(enterpriseName, MoreExecutors.sameThreadExecutor());
+    return findAllId(enterpriseName, QueryExecutors.defaultExecutor());
   }
 
   public Map<String, List<Long>> findAllId(final String enterpriseName, ExecutorService executor) {
-    final HashMap<String, List<Long>> result = newHashMap();
-    Core[] cores = Core.values();
-    int length = cores.length;
-    if (length > 0) {
-      List<Callable<List<Long>>> querys = newArrayListWithCapacity(length);
+    try {
+      return findAllIdAsync(enterpriseName, executor).get();
+    } catch (Exception e) {
+      throw new RuntimeException(e);
+    }
+  }
 
-      for (final Core core : cores) {
+  /**
+   * 在限定时间内并行查询名称库、关键字库、商标名称库
+   * <p>某个库响应过慢或查询失败时不会拖累整个查询，其余库的结果照常返回，调用线程最多等待timeout时间
+   *
+   * @param enterpriseName 企业(字号)名称
+   * @param executor       用于执行并行查询的 {@link ExecutorService} 的对象
+   * @param timeout        所有库共用的最长等待时间
+   * @param unit           时间单位
+   * @return 包含已返回结果以及超时、失败库的 {@link MultiCoreResult}，key为core名称
+   */
+  public MultiCoreResult<List<Long>> findAllId(String enterpriseName, ExecutorService executor, long timeout, TimeUnit unit) {
+    Map<String, ListenableFuture<List<Long>>> futures = newLinkedHashMap();
+    for (Core core : Core.values()) {
+      futures.put(core.getCoreName(), findAllIdFromAsync(core, enterpriseName, executor));
+    }
 
-        querys.add(new Callable<List<Long>>() {
-          @Override
-          public List<Long> call() throws Exception {
-            return findAllIdFrom(core, enterpriseName);
-          }
-        });
+    return MultiCoreResult.collect(futures, timeout, unit);
+  }
 
-      }
+  /**
+   * 异步并行查询名称库、关键字库、商标名称库，调用线程不会等待查询结果
+   *
+   * @param enterpriseName 企业(字号)名称
+   * @param executor       用于执行并行查询的 {@link ExecutorService} 的对象
+   * @return 所有库都查询完成后返回结果的 {@link ListenableFuture}，key为core名称
+   */
+  public ListenableFuture<Map<String, List<Long>>> findAllIdAsync(final String enterpriseName, ExecutorService executor) {
+    final Core[] cores = Core.values();
+    List<ListenableFuture<List<Long>>> futures = newArrayListWithCapacity(cores.length);
+
+    for (Core core : cores) {
+      futures.add(findAllIdFromAsync(core, enterpriseName, executor));
+    }
 
-      try {
-        List<Future<List<Long>>> futures = executor.invokeAll(querys);
+    return Futures.transform(Futures.allAsList(futures), new Function<List<List<Long>>, Map<String, List<Long>>>() {
+      @Override
+      public Map<String, List<Long>> apply(List<List<Long>> ids) {
+        HashMap<String, List<Long>> result = newHashMap();
 
-        // futures里的元素循序与querys一致，即一一对应
-        for (int i = 0; i < futures.size(); i++) {
-          Future<List<Long>> future = futures.get(i);
-          result.put(cores[i].getCoreName(), future.get());
+        // ids里的元素循序与cores一致，即一一对应
+        for (int i = 0; i < ids.size(); i++) {
+          result.put(cores[i].getCoreName(), ids.get(i));
         }
-      } catch (Exception e) {
-        throw new RuntimeException(e);
+        return result;
       }
+    });
+  }
 
+  /**
+   * 异步查询某个库，调用线程不会等待查询结果
+   *
+   * @param core           数据索引源
+   * @param enterpriseName 企业(字号)名称
+   * @param executor       用于执行查询的 {@link ExecutorService} 的对象
+   * @return 记录id列表的 {@link ListenableFuture}
+   */
+  public ListenableFuture<List<Long>> findAllIdFromAsync(Core core, String enterpriseName, ExecutorService executor) {
+    String queryString = core.buildQueryString(enterpriseName);
+    if (cache == null) {
+      return query.findAllFromAsync(core.getCoreName(), queryString, ALL_ID_PROFILE, executor);
+    }
+
+    final QueryResultCache.Key key = QueryResultCache.key(core.getCoreName(), queryString, ALL_ID_FINGERPRINT);
+    List<Long> ids = cache.getIfPresent(key);
+    if (ids != null) {
+      return Futures.immediateFuture(ids);
     }
 
-    return result;
+    return Futures.transform(query.findAllFromAsync(core.getCoreName(), queryString, ALL_ID_PROFILE, executor), new Function<List<Long>, List<Long>>() {
+      @Override
+      public List<Long> apply(List<Long> ids) {
+        cache.put(key, ids);
+        return ids;
+      }
+    });
   }
 
   public List<Long> findAllIdFrom(Core core, String enterpriseName) {
-    return query.findAllFrom(core.getCoreName(), core.buildQueryString(enterpriseName), Ids.GET);
+    return findAllId(core.getCoreName(), core.buildQueryString(enterpriseName));
+  }
+
+  /**
+   * 查询某个库，以流式方式将记录id直接读入 {@link LongList}，不装箱，也不保留solr文档
+   *
+   * @param core           数据索引源
+   * @param enterpriseName 企业(字号)名称
+   * @return 记录id列表
+   */
+  public LongList findAllLongIdFrom(Core core, String enterpriseName) {
+    return findAllLongId(core.getCoreName(), core.buildQueryString(enterpriseName));
   }
 
   public Page<Long> findIdFrom(Core core, String enterpriseName, Pageable pageRequest) {
-    return query.findFrom(core.getCoreName(), core.buildQueryString(enterpriseName), pageRequest, Ids.GET);
+    return query.findFrom(core.getCoreName(), core.buildQueryString(enterpriseName), new PagedSolrQueryProfile<Long>(Ids.ID_ONLY, ID_TRANSFORMER, pageRequest));
+  }
+
+  private List<Long> findAllId(final String coreName, final String queryString) {
+    if (cache == null) {
+      return query.findAllFrom(coreName, queryString, ALL_ID_PROFILE);
+    }
+
+    return cache.get(QueryResultCache.key(coreName, queryString, ALL_ID_FINGERPRINT), new Callable<List<Long>>() {
+      @Override
+      public List<Long> call() throws Exception {
+        return query.findAllFrom(coreName, queryString, ALL_ID_PROFILE);
+      }
+    });
+  }
+
+  private LongList findAllLongId(String coreName, String queryString) {
+    Ids.LongIdCollector collector = Ids.collector();
+    query.streamAllFrom(coreName, queryString, Ids.ID_ONLY, collector);
+    return collector.getIds();
   }
 
   private String buildNamestoreQueryString(String enterpriseName, String nameDistCode, String industryPhy) {
@@ -1,11 +1,13 @@
 package com.topsoft.search;
 
-import com.google.common.util.concurrent.MoreExecutors;
 import com.topsoft.search.domain.Page;
 import com.topsoft.search.domain.Pageable;
 import com.topsoft.search.support.AnnotationBasedResultTransformer;
+import com.topsoft.search.support.DocumentBinders;
+import com.topsoft.search.support.FieldListQueryPreProcessor;
 import com.topsoft.search.support.GenericSolrQueryProfile;
 import com.topsoft.search.support.PagedSolrQueryProfile;
+import com.topsoft.search.support.QueryPreProcessors;
 
 import java.util.List;
 import java.util.Map;
@@ -14,6 +16,7 @@ import java.util.concurrent.ExecutorService;
 /**
  * <p>扩展了{@link com.topsoft.search.PagableSolrMultiCoreQuery}, 增加了将{@link org.apache.solr.common.SolrDocument}对象基于
  * {@code Class}类型自动转换为相应对象的功能。前提是该对象类型内部使用了{@link org.apache.solr.client.solrj.beans.Field} annotation
+ * <p>查询时根据标注自动设置 {@code fl} 参数，只返回需要转换的字段，见 {@link FieldListQueryPreProcessor#forClass(Class)}
  *
  * @author wangyg
  */
@@ -22,9 +25,13 @@ public class AnnotationableSolrMultiCoreQuery extends PagableSolrMultiCoreQuery
     super(baseUrl);
   }
 
+  public AnnotationableSolrMultiCoreQuery(SolrMultiCoreQueryTemplate template) {
+    super(template);
+  }
+
   /**
    * 查询solr服务器上所有core
-   * <p>用同样的查询条件依次查询所有core，并使用{@link com.google.common.base.Function} 对象将查询结果转换为自定义的数据结构形式
+   * <p>用同样的查询条件并行查询所有core，使用共享的 {@link QueryExecutors#defaultExecutor()}，并使用{@link com.google.common.base.Function} 对象将查询结果转换为自定义的数据结构形式
    *
    * @param queryString 符合solr查询语法的字符串
    * @param clazz       用于将 {@link org.apache.solr.common.SolrDocument} 对象转换为 {@code Class<T>} 类型的实例对象
@@ -32,7 +39,7 @@ public class AnnotationableSolrMultiCoreQuery extends PagableSolrMultiCoreQuery
    * @return 一个Map结构的结果集，key为core名称，value为该core下符合查询条件的{@link java.util.List} 对象
    */
   public <T> Map<String, List<T>> findAll(final String queryString, final Class<T> clazz) {
-    return findAll(queryString, clazz, MoreExecutors.sameThreadExecutor());
+    return findAll(queryString, clazz, QueryExecutors.defaultExecutor());
   }
 
   /**
@@ -46,7 +53,7 @@ public class AnnotationableSolrMultiCoreQuery extends PagableSolrMultiCoreQuery
    * @return 一个Map结构的结果集，key为core名称，value为该core下符合查询条件的{@link List} 对象
    */
   public <T> Map<String, List<T>> findAll(final String queryString, final Class<T> clazz, ExecutorService executor) {
-    GenericSolrQueryProfile<T> profile = new GenericSolrQueryProfile<T>(QueryPreProcessor.DEFAULT, new AnnotationBasedResultTransformer<T>(clazz));
+    GenericSolrQueryProfile<T> profile = new GenericSolrQueryProfile<T>(allOf(clazz), new AnnotationBasedResultTransformer<T>(clazz));
     return findAll(queryString, profile, executor);
   }
 
@@ -61,13 +68,13 @@ public class AnnotationableSolrMultiCoreQuery extends PagableSolrMultiCoreQuery
    * @return 一个Map结构的结果集，key为core名称，value为该core下符合查询条件的{@link List} 对象
    */
   public <T> List<T> findAllFrom(String coreName, String queryString, Class<T> clazz) {
-    GenericSolrQueryProfile<T> profile = new GenericSolrQueryProfile<T>(QueryPreProcessor.DEFAULT, new AnnotationBasedResultTransformer<T>(clazz));
+    GenericSolrQueryProfile<T> profile = new GenericSolrQueryProfile<T>(allOf(clazz), new AnnotationBasedResultTransformer<T>(clazz));
     return findAllFrom(coreName, queryString, profile);
   }
 
   /**
    * 查询solr服务器上所有core
-   * <p>用同样的查询条件依次查询所有core，并使用{@link com.google.common.base.Function} 对象将查询结果转换为自定义的数据结构形式
+   * <p>用同样的查询条件并行查询所有core，使用共享的 {@link QueryExecutors#defaultExecutor()}，并使用{@link com.google.common.base.Function} 对象将查询结果转换为自定义的数据结构形式
    *
    * @param queryString 符合solr查询语法的字符串
    * @param pageRequest 分页信息
@@ -76,7 +83,7 @@ public class AnnotationableSolrMultiCoreQuery extends PagableSolrMultiCoreQuery
    * @return 一个Map结构的结果集，key为core名称，value为该core下符合查询条件的{@link com.topsoft.search.domain.Page}封装对象
    */
   public <T> Map<String, Page<T>> find(final String queryString, final Pageable pageRequest, final Class<T> clazz) {
-    return find(queryString, pageRequest, clazz, MoreExecutors.sameThreadExecutor());
+    return find(queryString, pageRequest, clazz, QueryExecutors.defaultExecutor());
   }
 
   /**
@@ -91,7 +98,7 @@ public class AnnotationableSolrMultiCoreQuery extends PagableSolrMultiCoreQuery
    * @return 一个Map结构的结果集，key为core名称，value为该core下符合查询条件的{@link com.topsoft.search.domain.Page}封装对象
    */
   public <T> Map<String, Page<T>> find(final String queryString, final Pageable pageRequest, final Class<T> clazz, ExecutorService executor) {
-    return find(queryString, new PagedSolrQueryProfile<T>(new AnnotationBasedResultTransformer<T>(clazz), pageRequest), executor);
+    return find(queryString, new PagedSolrQueryProfile<T>(FieldListQueryPreProcessor.forClass(clazz), new AnnotationBasedResultTransformer<T>(clazz), pageRequest), executor);
   }
 
   /**
@@ -105,6 +112,38 @@ public class AnnotationableSolrMultiCoreQuery extends PagableSolrMultiCoreQuery
    * @return 一个Map结构的结果集，key为core名称，value为该core下符合查询条件的{@link com.topsoft.search.domain.Page}封装对象
    */
   public <T> Page<T> findFrom(String coreName, String queryString, Pageable pageRequest, final Class<T> clazz) {
-    return findFrom(coreName, queryString, new PagedSolrQueryProfile<T>(new AnnotationBasedResultTransformer<T>(clazz), pageRequest));
+    return findFrom(coreName, queryString, new PagedSolrQueryProfile<T>(FieldListQueryPreProcessor.forClass(clazz), new AnnotationBasedResultTransformer<T>(clazz), pageRequest));
+  }
+
+  /**
+   * 查询solr服务器上所有core，并将结果合并为一个全局排序的分页
+   * <p>使用共享的 {@link QueryExecutors#defaultExecutor()} 并行查询，只有合并后选中的记录才会转换为 {@code Class<T>} 类型的实例对象
+   *
+   * @param queryString 符合solr查询语法的字符串
+   * @param pageRequest 合并后的分页信息
+   * @param clazz       用于将 {@link org.apache.solr.common.SolrDocument} 对象转换为 {@code Class<T>} 类型的实例对象
+   * @param <T>
+   * @return 合并后的{@link com.topsoft.search.domain.Page}分页对象，总记录数为各core记录数之和
+   */
+  public <T> Page<T> findMerged(String queryString, Pageable pageRequest, Class<T> clazz) {
+    return findMerged(queryString, pageRequest, clazz, QueryExecutors.defaultExecutor());
+  }
+
+  /**
+   * 并行查询solr服务器上所有core，并将结果合并为一个全局排序的分页
+   *
+   * @param queryString 符合solr查询语法的字符串
+   * @param pageRequest 合并后的分页信息
+   * @param clazz       用于将 {@link org.apache.solr.common.SolrDocument} 对象转换为 {@code Class<T>} 类型的实例对象
+   * @param executor    用于执行并行查询的 {@link java.util.concurrent.ExecutorService} 的对象
+   * @param <T>
+   * @return 合并后的{@link com.topsoft.search.domain.Page}分页对象，总记录数为各core记录数之和
+   */
+  public <T> Page<T> findMerged(String queryString, Pageable pageRequest, Class<T> clazz, ExecutorService executor) {
+    return findMerged(queryString, pageRequest, FieldListQueryPreProcessor.forClass(clazz), DocumentBinders.forClass(clazz), executor);
+  }
+
+  private static QueryPreProcessor allOf(Class<?> clazz) {
+    return QueryPreProcessors.chain(QueryPreProcessor.DEFAULT, FieldListQueryPreProcessor.forClass(clazz));
   }
 }
@@ -0,0 +1,113 @@
+package com.topsoft.search;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.solr.client.solrj.impl.HttpSolrServer;
+import org.apache.solr.client.solrj.request.CoreAdminRequest;
+import org.apache.solr.client.solrj.response.CoreAdminResponse;
+import org.apache.solr.common.params.CoreAdminParams;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.*;
+
+/**
+ * <p>缓存solr服务器上所有core名称的工具类
+ * <p>避免每次多core查询前都向 {@code /admin/cores} 发送一次STATUS请求。缓存写入超过ttl后，下一次读取会触发后台刷新线程
+ * 重新加载，读取线程不等待而是继续使用旧的core列表；刷新失败时同样保留旧的列表。
+ * <p>core发生增删时可调用 {@link #invalidate()} 使缓存立即失效，或调用 {@link #refresh()} 在后台重新加载。
+ *
+ * @author wangyg
+ */
+public class CoreNamesCache {
+  public static final long DEFAULT_TTL_SECONDS = 60;
+
+  // 所有实例共用一个后台刷新线程，刷新请求很少，无须更多线程
+  private static final ExecutorService REFRESHER = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+      .setNameFormat("solr-core-names-refresher-%d")
+      .setDaemon(true)
+      .build());
+
+  private final String baseUrl;
+  private final HttpSolrServerCache servers;
+  private final LoadingCache<String, List<String>> cache;
+
+  public CoreNamesCache(String baseUrl, HttpSolrServerCache servers) {
+    this(baseUrl, servers, DEFAULT_TTL_SECONDS, TimeUnit.SECONDS);
+  }
+
+  public CoreNamesCache(String baseUrl, HttpSolrServerCache servers, long ttl, TimeUnit ttlTimeUnit) {
+    checkArgument(ttl > 0, "ttl must greater than zero!");
+    checkNotNull(ttlTimeUnit, "ttlTimeUnit must not be null!");
+    this.baseUrl = checkNotNull(baseUrl, "baseUrl must not be null!");
+    this.servers = checkNotNull(servers, "servers must not be null!");
+    this.cache = CacheBuilder.newBuilder()
+        .refreshAfterWrite(ttl, ttlTimeUnit)
+        .build(new CacheLoader<String, List<String>>() {
+          @Override
+          public List<String> load(String key) throws Exception {
+            return loadCoreNames(key);
+          }
+
+          @Override
+          public ListenableFuture<List<String>> reload(final String key, List<String> oldValue) throws Exception {
+            ListenableFutureTask<List<String>> task = ListenableFutureTask.create(new Callable<List<String>>() {
+              @Override
+              public List<String> call() throws Exception {
+                return loadCoreNames(key);
+              }
+            });
+            REFRESHER.execute(task);
+            return task;
+          }
+        });
+  }
+
+  /**
+   * 返回缓存的core名称列表，只有首次调用或失效后才会同步请求solr服务器
+   *
+   * @return 不可变的core名称列表
+   */
+  public List<String> get() {
+    return cache.getUnchecked(baseUrl);
+  }
+
+  /**
+   * 使缓存的core名称列表立即失效，下一次 {@link #get()} 将同步重新加载
+   */
+  public void invalidate() {
+    cache.invalidate(baseUrl);
+  }
+
+  /**
+   * 在后台重新加载core名称列表，加载完成前 {@link #get()} 继续返回旧的列表
+   */
+  public void refresh() {
+    cache.refresh(baseUrl);
+  }
+
+  private List<String> loadCoreNames(String url) throws Exception {
+    CoreAdminRequest request = new CoreAdminRequest();
+    request.setAction(CoreAdminParams.CoreAdminAction.STATUS);
+    // 只需要core名称，不需要每个core的索引统计信息
+    request.setIndexInfoNeeded(false);
+
+    HttpSolrServer server = servers.getUnchecked(url);
+    CoreAdminResponse response = request.process(server);
+
+    ImmutableList.Builder<String> builder = ImmutableList.builder();
+    for (int i = 0; i < response.getCoreStatus().size(); i++) {
+      builder.add(response.getCoreStatus().getName(i));
+    }
+    return builder.build();
+  }
+}
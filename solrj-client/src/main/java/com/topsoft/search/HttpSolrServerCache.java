@@ -4,10 +4,20 @@ import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.ForwardingLoadingCache;
 import com.google.common.cache.LoadingCache;
-import com.google.common.cache.RemovalListener;
-import com.google.common.cache.RemovalNotification;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.http.HttpResponse;
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.impl.conn.SchemeRegistryFactory;
+import org.apache.http.protocol.HttpContext;
+import org.apache.solr.client.solrj.impl.HttpClientUtil;
 import org.apache.solr.client.solrj.impl.HttpSolrServer;
 
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
 import static com.google.common.base.Preconditions.*;
@@ -15,27 +25,30 @@ import static com.google.common.base.Preconditions.*;
 /**
  * <p>用于缓存 {@link HttpSolrServer} 实例的工具类
  * <p>主要目的是为了避免频繁的重复创建 {@link HttpSolrServer} 实例，可有效提高性能。
- * <p>缓存的key是server的url，缓存实例默认闲置一分钟失效。
+ * <p>缓存的key是server的url，同一个缓存中的所有实例共用一个由 {@link SolrConnectionConfig} 配置的http连接池，缓存的实例默认不会因闲置而失效，
+ * 以便复用已建立的TCP连接；闲置的连接则由后台线程定期关闭。
+ * <p>{@link #getInstance()} 返回全局共享的缓存；需要单独调整连接池的使用方(例如数据导入调度器)可通过 {@link #builder()} 创建自己的缓存，
+ * 并在不再使用时调用 {@link #shutdown()}。
  *
  * @author wangyg
  */
 public class HttpSolrServerCache extends ForwardingLoadingCache<String, HttpSolrServer> {
 
-  private static final RemovalListener<String, HttpSolrServer> REMOVAL_LISTENER = new RemovalListener<String, HttpSolrServer>() {
-    @Override
-    public void onRemoval(RemovalNotification<String, HttpSolrServer> notification) {
-      HttpSolrServer server = notification.getValue();
-      if (server != null) {
-        server.shutdown();
-      }
-    }
-  };
-  private static HttpSolrServerCache instance;
+  // 所有实例共用一个回收空闲连接的线程
+  private static final ScheduledExecutorService EVICTOR = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+      .setNameFormat("solr-idle-connection-evictor-%d")
+      .setDaemon(true)
+      .build());
+
+  private final SolrConnectionConfig config;
+  private final ClientConnectionManager connectionManager;
+  private final DefaultHttpClient httpClient;
+  private final ScheduledFuture<?> eviction;
   private final LoadingCache<String, HttpSolrServer> cache;
   private CacheLoader<String, HttpSolrServer> loader = new CacheLoader<String, HttpSolrServer>() {
     @Override
     public HttpSolrServer load(String key) throws Exception {
-      return new HttpSolrServer(normalizeKey(key));
+      return new HttpSolrServer(normalizeKey(key), httpClient);
     }
 
     private String normalizeKey(String key) {
@@ -44,30 +57,84 @@ public class HttpSolrServerCache extends ForwardingLoadingCache<String, HttpSolr
     }
   };
 
-  private HttpSolrServerCache(long timeout, TimeUnit timeoutTimeUnit) {
-    cache = CacheBuilder.newBuilder()
-        .expireAfterAccess(timeout, timeoutTimeUnit) // default idle time: 1 minute
-        .removalListener(REMOVAL_LISTENER)
-        .build(loader);
+  private HttpSolrServerCache(Builder builder) {
+    final SolrConnectionConfig config = builder.connectionConfig;
+    this.config = config;
+
+    PoolingClientConnectionManager cm = new PoolingClientConnectionManager(SchemeRegistryFactory.createDefault());
+    cm.setMaxTotal(config.getMaxConnectionsTotal());
+    cm.setDefaultMaxPerRoute(config.getMaxConnectionsPerRoute());
+    this.connectionManager = cm;
+
+    httpClient = new DefaultHttpClient(cm);
+    HttpClientUtil.setConnectionTimeout(httpClient, config.getConnectionTimeoutMillis());
+    HttpClientUtil.setSoTimeout(httpClient, config.getSocketTimeoutMillis());
+    HttpClientUtil.setFollowRedirects(httpClient, false);
+    HttpClientUtil.setAllowCompression(httpClient, config.isAllowCompression());
+    httpClient.setKeepAliveStrategy(new DefaultConnectionKeepAliveStrategy() {
+      @Override
+      public long getKeepAliveDuration(HttpResponse response, HttpContext context) {
+        long duration = super.getKeepAliveDuration(response, context);
+        return duration > 0 ? duration : config.getKeepAliveMillis();
+      }
+    });
+
+    long period = Math.max(config.getIdleConnectionTimeoutMillis() / 2, 1000L);
+    eviction = EVICTOR.scheduleWithFixedDelay(new Runnable() {
+      @Override
+      public void run() {
+        connectionManager.closeExpiredConnections();
+        connectionManager.closeIdleConnections(config.getIdleConnectionTimeoutMillis(), TimeUnit.MILLISECONDS);
+      }
+    }, period, period, TimeUnit.MILLISECONDS);
+
+    CacheBuilder<Object, Object> cacheBuilder = CacheBuilder.newBuilder();
+    if (builder.maximumSize >= 0) {
+      cacheBuilder.maximumSize(builder.maximumSize);
+    }
+    if (builder.expireAfterAccessNanos >= 0) {
+      cacheBuilder.expireAfterAccess(builder.expireAfterAccessNanos, TimeUnit.NANOSECONDS);
+    }
+    if (builder.recordStats) {
+      cacheBuilder.recordStats();
+    }
+    cache = cacheBuilder.build(loader);
   }
 
+  /**
+   * 返回使用默认配置的全局共享实例，需要单独配置连接池或缓存策略时请使用 {@link #builder()} 创建独立的实例
+   */
   public static final HttpSolrServerCache getInstance() {
-    return getInstance(60, TimeUnit.SECONDS);
+    return DefaultInstanceHolder.INSTANCE;
   }
 
+  /**
+   * @deprecated 参数不会生效，该方法总是返回 {@link #getInstance()}，
+   * 缓存的实例不再因闲置而失效，需要单独配置时请使用 {@link #builder()}
+   */
+  @Deprecated
   public static final HttpSolrServerCache getInstance(long timeout, TimeUnit timeoutTimeUnit) {
     checkArgument(timeout > 0, "timeout must greater than zero!");
     checkNotNull(timeoutTimeUnit, "timeoutTimeUnit must not be null!");
 
-    if (instance == null) {
-      synchronized (HttpSolrServerCache.class) {
-        if (instance == null) {
-          instance = new HttpSolrServerCache(timeout, timeoutTimeUnit);
-        }
-      }
-    }
+    return getInstance();
+  }
 
-    return instance;
+  public static final Builder builder() {
+    return new Builder();
+  }
+
+  public SolrConnectionConfig getConfig() {
+    return config;
+  }
+
+  /**
+   * 清空缓存，停止回收空闲连接并关闭连接池，调用后该实例不可再使用
+   */
+  public void shutdown() {
+    eviction.cancel(false);
+    cache.invalidateAll();
+    connectionManager.shutdown();
   }
 
   @Override
@@ -75,4 +142,50 @@ public class HttpSolrServerCache extends ForwardingLoadingCache<String, HttpSolr
     return cache;
   }
 
+  private static class DefaultInstanceHolder {
+    static final HttpSolrServerCache INSTANCE = builder().build();
+  }
+
+  public static final class Builder {
+    private SolrConnectionConfig connectionConfig = SolrConnectionConfig.DEFAULT;
+    private long maximumSize = -1;
+    private long expireAfterAccessNanos = -1;
+    private boolean recordStats;
+
+    public HttpSolrServerCache build() {
+      return new HttpSolrServerCache(this);
+    }
+
+    public Builder setConnectionConfig(SolrConnectionConfig connectionConfig) {
+      this.connectionConfig = checkNotNull(connectionConfig, "connectionConfig must not be null!");
+      return this;
+    }
+
+    /**
+     * 最多缓存的 {@link HttpSolrServer} 实例数，默认不限制
+     */
+    public Builder setMaximumSize(long maximumSize) {
+      checkArgument(maximumSize >= 0, "maximumSize must not be less than zero!");
+      this.maximumSize = maximumSize;
+      return this;
+    }
+
+    /**
+     * 闲置超过该时间的 {@link HttpSolrServer} 实例会从缓存中移除，默认不移除；移除实例不会关闭连接池中的连接
+     */
+    public Builder setExpireAfterAccess(long duration, TimeUnit unit) {
+      checkArgument(duration >= 0, "duration must not be less than zero!");
+      this.expireAfterAccessNanos = checkNotNull(unit, "unit must not be null!").toNanos(duration);
+      return this;
+    }
+
+    /**
+     * 记录缓存命中等统计信息，可通过 {@link HttpSolrServerCache#stats()} 获取
+     */
+    public Builder recordStats() {
+      this.recordStats = true;
+      return this;
+    }
+  }
+
 }
@@ -0,0 +1,126 @@
+package com.topsoft.search;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static com.google.common.base.Preconditions.*;
+
+/**
+ * 多core查询在限定时间内的结果, 该对象是不可变的线程安全对象。
+ * <p>除了按时返回的各core结果以外，还记录了超时未返回的core以及查询失败的core和失败原因，
+ * 调用方可据此决定是否使用不完整的结果。
+ *
+ * @param <C> 单个core的结果类型
+ * @author wangyg
+ */
+public class MultiCoreResult<C> {
+  private final ImmutableMap<String, C> results;
+  private final ImmutableSet<String> timedOutCores;
+  private final ImmutableMap<String, Throwable> failures;
+
+  private MultiCoreResult(ImmutableMap<String, C> results, ImmutableSet<String> timedOutCores,
+                          ImmutableMap<String, Throwable> failures) {
+    this.results = results;
+    this.timedOutCores = timedOutCores;
+    this.failures = failures;
+  }
+
+  /**
+   * 在同一个截止时间内收集各core的查询结果，超时未完成的查询会被取消
+   * <p>注意: 如果查询是在调用线程中执行的(例如使用 {@code MoreExecutors.sameThreadExecutor()})，
+   * 则查询在提交时已经完成，截止时间无法限制其耗时。
+   *
+   * @param futures key为core名称，value为该core查询结果的 {@link Future}
+   * @param timeout 所有core共用的最长等待时间
+   * @param unit    时间单位
+   * @param <C>     单个core的结果类型
+   * @return 包含已完成、超时及失败的core的结果
+   */
+  public static <C> MultiCoreResult<C> collect(Map<String, ? extends Future<? extends C>> futures, long timeout, TimeUnit unit) {
+    checkNotNull(futures, "futures must not be null!");
+    checkArgument(timeout >= 0, "timeout must not be less than zero!");
+    checkNotNull(unit, "unit must not be null!");
+
+    ImmutableMap.Builder<String, C> results = ImmutableMap.builder();
+    ImmutableSet.Builder<String> timedOutCores = ImmutableSet.builder();
+    ImmutableMap.Builder<String, Throwable> failures = ImmutableMap.builder();
+
+    final long deadline = System.nanoTime() + unit.toNanos(timeout);
+    boolean interrupted = false;
+
+    for (Map.Entry<String, ? extends Future<? extends C>> entry : futures.entrySet()) {
+      String core = entry.getKey();
+      Future<? extends C> future = entry.getValue();
+
+      if (interrupted) {
+        future.cancel(true);
+        timedOutCores.add(core);
+        continue;
+      }
+
+      try {
+        long remaining = Math.max(deadline - System.nanoTime(), 0L);
+        results.put(core, future.get(remaining, TimeUnit.NANOSECONDS));
+      } catch (TimeoutException e) {
+        future.cancel(true);
+        timedOutCores.add(core);
+      } catch (ExecutionException e) {
+        failures.put(core, e.getCause() == null ? e : e.getCause());
+      } catch (CancellationException e) {
+        failures.put(core, e);
+      } catch (InterruptedException e) {
+        // 不再等待剩余的core，保留中断状态交由调用方处理
+        interrupted = true;
+        future.cancel(true);
+        timedOutCores.add(core);
+      }
+    }
+
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+
+    return new MultiCoreResult<C>(results.build(), timedOutCores.build(), failures.build());
+  }
+
+  /**
+   * @return 在截止时间内成功返回的结果，key为core名称
+   */
+  public Map<String, C> getResults() {
+    return results;
+  }
+
+  /**
+   * @return 截止时间内未返回的core名称
+   */
+  public Set<String> getTimedOutCores() {
+    return timedOutCores;
+  }
+
+  /**
+   * @return 查询失败的core，value为失败原因
+   */
+  public Map<String, Throwable> getFailures() {
+    return failures;
+  }
+
+  /**
+   * @return 是否所有core都按时成功返回
+   */
+  public boolean isComplete() {
+    return timedOutCores.isEmpty() && failures.isEmpty();
+  }
+
+  @Override
+  public String toString() {
+    return String.format("answered:%s, timed out:%s, failed:%s", results.keySet(), timedOutCores, failures.keySet());
+  }
+}
@@ -1,15 +1,24 @@
 package com.topsoft.search;
 
 import com.google.common.base.Function;
-import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.base.Functions;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.topsoft.search.domain.Page;
 import com.topsoft.search.domain.Pageable;
+import com.topsoft.search.domain.SearchAfterPage;
+import com.topsoft.search.domain.SearchAfterRequest;
+import com.topsoft.search.support.GenericSolrQueryProfile;
 import com.topsoft.search.support.GuavaFunctionResultTransformer;
+import com.topsoft.search.support.MergedPages;
 import com.topsoft.search.support.PagedSolrQueryProfile;
+import com.topsoft.search.support.QueryPreProcessors;
+import com.topsoft.search.support.SearchAfterSolrQueryProfile;
 import org.apache.solr.common.SolrDocument;
 
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 扩展了{@link com.topsoft.search.SolrMultiCoreQuery}, 增加了分页支持
@@ -37,9 +46,13 @@ public class PagableSolrMultiCoreQuery extends SolrMultiCoreQuery {
     super(baseUrl);
   }
 
+  public PagableSolrMultiCoreQuery(SolrMultiCoreQueryTemplate template) {
+    super(template);
+  }
+
   /**
    * 查询solr服务器上所有core
-   * <p>用同样的查询条件依次查询所有core，并使用{@link com.topsoft.search.support.PagedSolrQueryProfile<T>} 对象
+   * <p>用同样的查询条件并行查询所有core，并使用{@link com.topsoft.search.support.PagedSolrQueryProfile<T>} 对象
    * 对{@link org.apache.solr.client.solrj.SolrQuery}参数进行预先设置和查询结果数据进行后期转换及封装、分页
    *
    * @param queryString 符合solr查询语法的字符串
@@ -66,16 +79,59 @@ public class PagableSolrMultiCoreQuery extends SolrMultiCoreQuery {
     return template.findFrom(coreName, queryString, profile);
   }
 
+  /**
+   * 在限定时间内并行查询solr服务器上所有core
+   * <p>超时或查询失败的core记录在返回结果中，其余core的结果照常返回，调用线程最多等待timeout时间
+   *
+   * @param queryString 符合solr查询语法的字符串
+   * @param profile     对查询参数进行预先设置和对查询结果数据进行后期转换及封装
+   * @param executor    用于执行并行查询的 {@link java.util.concurrent.ExecutorService} 的对象
+   * @param timeout     所有core共用的最长等待时间
+   * @param unit        时间单位
+   * @param <T>
+   * @return 包含已返回的{@link com.topsoft.search.domain.Page}以及超时、失败core的 {@link MultiCoreResult}
+   */
+  public <T> MultiCoreResult<Page<T>> find(String queryString, PagedSolrQueryProfile<T> profile, ExecutorService executor, long timeout, TimeUnit unit) {
+    return template.find(queryString, profile, executor, timeout, unit);
+  }
+
+  /**
+   * 异步并行查询solr服务器上所有core，调用线程不会等待查询结果
+   *
+   * @param queryString 符合solr查询语法的字符串
+   * @param profile     对查询参数进行预先设置和对查询结果数据进行后期转换及封装
+   * @param executor    用于执行并行查询的 {@link java.util.concurrent.ExecutorService} 的对象
+   * @param <T>
+   * @return 一个Map结构结果集的 {@link ListenableFuture}，key为core名称，value为该core下符合查询条件的{@link com.topsoft.search.domain.Page} 对象
+   */
+  public <T> ListenableFuture<Map<String, Page<T>>> findAsync(String queryString, PagedSolrQueryProfile<T> profile, ExecutorService executor) {
+    return template.findAsync(queryString, profile, executor);
+  }
+
+  /**
+   * 异步查询特定core，调用线程不会等待查询结果
+   *
+   * @param coreName    core名称
+   * @param queryString 符合solr查询语法的字符串
+   * @param profile     对查询参数进行预先设置和对查询结果数据进行后期转换及封装
+   * @param executor    用于执行查询的 {@link java.util.concurrent.ExecutorService} 的对象
+   * @param <T>
+   * @return 符合查询条件的{@link com.topsoft.search.domain.Page}分页对象的 {@link ListenableFuture}
+   */
+  public <T> ListenableFuture<Page<T>> findFromAsync(String coreName, String queryString, PagedSolrQueryProfile<T> profile, ExecutorService executor) {
+    return template.findFromAsync(coreName, queryString, profile, executor);
+  }
+
   /**
    * 查询solr服务器上所有core
-   * <p>用同样的查询条件依次查询所有core
+   * <p>用同样的查询条件并行查询所有core，使用共享的 {@link QueryExecutors#defaultExecutor()}
    *
    * @param queryString 符合solr查询语法的字符串
    * @param pageRequest 分页信息
    * @return 一个Map结构的结果集，key为core名称，value为该core下符合查询条件的{@link com.topsoft.search.domain.Page}封装对象
    */
   public Map<String, Page<SolrDocument>> find(String queryString, Pageable pageRequest) {
-    return find(queryString, pageRequest, MoreExecutors.sameThreadExecutor());
+    return find(queryString, pageRequest, QueryExecutors.defaultExecutor());
   }
 
   /**
@@ -93,7 +149,7 @@ public class PagableSolrMultiCoreQuery extends SolrMultiCoreQuery {
 
   /**
    * 查询solr服务器上所有core
-   * <p>用同样的查询条件依次查询所有core，并使用{@link com.google.common.base.Function} 对象将查询结果转换为自定义的数据结构形式
+   * <p>用同样的查询条件并行查询所有core，使用共享的 {@link QueryExecutors#defaultExecutor()}，并使用{@link com.google.common.base.Function} 对象将查询结果转换为自定义的数据结构形式
    *
    * @param queryString 符合solr查询语法的字符串
    * @param pageRequest 分页信息
@@ -102,7 +158,7 @@ public class PagableSolrMultiCoreQuery extends SolrMultiCoreQuery {
    * @return 一个Map结构的结果集，key为core名称，value为该core下符合查询条件的{@link com.topsoft.search.domain.Page}封装对象
    */
   public <T> Map<String, Page<T>> find(final String queryString, final Pageable pageRequest, final Function<SolrDocument, ? extends T> function) {
-    return find(queryString, pageRequest, function, MoreExecutors.sameThreadExecutor());
+    return find(queryString, pageRequest, function, QueryExecutors.defaultExecutor());
   }
 
   /**
@@ -146,4 +202,118 @@ public class PagableSolrMultiCoreQuery extends SolrMultiCoreQuery {
   public <T> Page<T> findFrom(String coreName, String queryString, Pageable pageRequest, Function<SolrDocument, ? extends T> function) {
     return findFrom(coreName, queryString, new PagedSolrQueryProfile<T>(new GuavaFunctionResultTransformer<T>(function), pageRequest));
   }
+
+  /**
+   * 查询solr服务器上所有core，并将结果合并为一个全局排序的分页
+   * <p>使用共享的 {@link QueryExecutors#defaultExecutor()} 并行查询，按 {@code pageRequest} 的排序(未指定时按score)合并
+   *
+   * @param queryString 符合solr查询语法的字符串
+   * @param pageRequest 合并后的分页信息
+   * @return 合并后的{@link com.topsoft.search.domain.Page}分页对象，总记录数为各core记录数之和
+   */
+  public Page<SolrDocument> findMerged(String queryString, Pageable pageRequest) {
+    return findMerged(queryString, pageRequest, QueryExecutors.defaultExecutor());
+  }
+
+  /**
+   * 并行查询solr服务器上所有core，并将结果合并为一个全局排序的分页
+   *
+   * @param queryString 符合solr查询语法的字符串
+   * @param pageRequest 合并后的分页信息
+   * @param executor    用于执行并行查询的 {@link java.util.concurrent.ExecutorService} 的对象
+   * @return 合并后的{@link com.topsoft.search.domain.Page}分页对象，总记录数为各core记录数之和
+   */
+  public Page<SolrDocument> findMerged(String queryString, Pageable pageRequest, ExecutorService executor) {
+    return findMerged(queryString, pageRequest, Functions.<SolrDocument>identity(), executor);
+  }
+
+  /**
+   * 查询solr服务器上所有core，并将结果合并为一个全局排序的分页
+   * <p>使用共享的 {@link QueryExecutors#defaultExecutor()} 并行查询，只有合并后选中的记录才会使用{@link com.google.common.base.Function} 对象进行转换
+   *
+   * @param queryString 符合solr查询语法的字符串
+   * @param pageRequest 合并后的分页信息
+   * @param function    用于将 {@link org.apache.solr.common.SolrDocument} 对象转换为 <T> 对象的 {@link com.google.common.base.Function} 函数
+   * @param <T>         用于封装查询结果的数据结构
+   * @return 合并后的{@link com.topsoft.search.domain.Page}分页对象，总记录数为各core记录数之和
+   */
+  public <T> Page<T> findMerged(String queryString, Pageable pageRequest, Function<SolrDocument, ? extends T> function) {
+    return findMerged(queryString, pageRequest, function, QueryExecutors.defaultExecutor());
+  }
+
+  /**
+   * 并行查询solr服务器上所有core，并将结果合并为一个全局排序的分页
+   * <p>每个core查询前 {@code offset + size} 条记录，再按 {@code pageRequest} 的排序(未指定时按score)进行多路归并，
+   * 只有合并后选中的记录才会使用{@link com.google.common.base.Function} 对象进行转换
+   *
+   * @param queryString 符合solr查询语法的字符串
+   * @param pageRequest 合并后的分页信息
+   * @param function    用于将 {@link org.apache.solr.common.SolrDocument} 对象转换为 <T> 对象的 {@link com.google.common.base.Function} 函数
+   * @param executor    用于执行并行查询的 {@link java.util.concurrent.ExecutorService} 的对象
+   * @param <T>         用于封装查询结果的数据结构
+   * @return 合并后的{@link com.topsoft.search.domain.Page}分页对象，总记录数为各core记录数之和
+   */
+  public <T> Page<T> findMerged(String queryString, Pageable pageRequest, Function<SolrDocument, ? extends T> function, ExecutorService executor) {
+    return findMerged(queryString, pageRequest, null, function, executor);
+  }
+
+  /**
+   * 并行查询solr服务器上所有core，并将结果合并为一个全局排序的分页
+   *
+   * @param queryString  符合solr查询语法的字符串
+   * @param pageRequest  合并后的分页信息
+   * @param preProcessor 在分页及排序参数之前执行的 {@link QueryPreProcessor}，例如 {@link com.topsoft.search.support.FieldListQueryPreProcessor}，可以为 {@code null}
+   * @param function     用于将 {@link org.apache.solr.common.SolrDocument} 对象转换为 <T> 对象的 {@link com.google.common.base.Function} 函数
+   * @param executor     用于执行并行查询的 {@link java.util.concurrent.ExecutorService} 的对象
+   * @param <T>          用于封装查询结果的数据结构
+   * @return 合并后的{@link com.topsoft.search.domain.Page}分页对象，总记录数为各core记录数之和
+   */
+  public <T> Page<T> findMerged(String queryString, Pageable pageRequest, QueryPreProcessor preProcessor,
+                                Function<SolrDocument, ? extends T> function, ExecutorService executor) {
+    GenericSolrQueryProfile<SolrDocument> profile = new GenericSolrQueryProfile<SolrDocument>(
+        QueryPreProcessors.chain(preProcessor, MergedPages.preProcessor(pageRequest)), ResultTransformer.DEFAULT);
+    Map<String, List<SolrDocument>> results = findAll(queryString, profile, executor);
+    return MergedPages.merge(results.values(), pageRequest, function);
+  }
+
+  /**
+   * 基于排序值深度分页查询solr服务器上的某个core
+   *
+   * @param coreName    core名称
+   * @param queryString 符合solr查询语法的字符串
+   * @param profile     对查询参数进行预先设置和对查询结果数据进行后期转换及封装
+   * @param <T>
+   * @return 符合查询条件的{@link com.topsoft.search.domain.SearchAfterPage}分页对象，可从中获取下一页的分页参数
+   */
+  public <T> SearchAfterPage<T> findFrom(String coreName, String queryString, SearchAfterSolrQueryProfile<T> profile) {
+    return template.findFrom(coreName, queryString, profile);
+  }
+
+  /**
+   * 基于排序值深度分页查询solr服务器上的某个core
+   * <p>第一页使用 {@link SearchAfterRequest#first(int, com.topsoft.search.domain.Sort)}，之后每一页使用上一页的
+   * {@link SearchAfterPage#nextPageRequest()}，翻到第N页与查询第一页的开销相同
+   *
+   * @param coreName    core名称
+   * @param queryString 符合solr查询语法的字符串
+   * @param pageRequest 分页信息
+   * @return 符合查询条件的{@link com.topsoft.search.domain.SearchAfterPage}分页对象，内部结果集合类型为{@link org.apache.solr.common.SolrDocument}
+   */
+  public SearchAfterPage<SolrDocument> findFrom(String coreName, String queryString, SearchAfterRequest pageRequest) {
+    return findFrom(coreName, queryString, new SearchAfterSolrQueryProfile<SolrDocument>(ResultTransformer.DEFAULT, pageRequest));
+  }
+
+  /**
+   * 基于排序值深度分页查询solr服务器上的某个core，并使用{@link com.google.common.base.Function} 对象将查询结果转换为自定义的数据结构形式
+   *
+   * @param coreName    core名称
+   * @param queryString 符合solr查询语法的字符串
+   * @param pageRequest 分页信息
+   * @param function    用于将 {@link org.apache.solr.common.SolrDocument} 对象转换为 <T> 对象的 {@link com.google.common.base.Function} 函数
+   * @param <T>         用于封装查询结果的数据结构
+   * @return 符合查询条件的{@link com.topsoft.search.domain.SearchAfterPage}分页对象，内部结果集合类型为 <T> 的对象
+   */
+  public <T> SearchAfterPage<T> findFrom(String coreName, String queryString, SearchAfterRequest pageRequest, Function<SolrDocument, ? extends T> function) {
+    return findFrom(coreName, queryString, new SearchAfterSolrQueryProfile<T>(new GuavaFunctionResultTransformer<T>(function), pageRequest));
+  }
 }
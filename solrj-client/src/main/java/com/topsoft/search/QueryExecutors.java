@@ -0,0 +1,108 @@
+package com.topsoft.search;
+
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.*;
+
+/**
+ * <p>多core并行查询所使用的线程池
+ * <p>{@link #defaultExecutor()} 是由本库管理的共享线程池，线程数和队列长度都有上限，队列满时由提交查询的线程自己执行查询，
+ * 从而在不创建过多线程的前提下默认并行查询。可通过系统属性调整:
+ * <ul>
+ * <li>{@value #THREADS_PROPERTY}: 线程数，默认为cpu核数的2倍</li>
+ * <li>{@value #QUEUE_CAPACITY_PROPERTY}: 等待队列长度，默认为{@value #DEFAULT_QUEUE_CAPACITY}</li>
+ * </ul>
+ * <p>共享线程池中的任务不应再阻塞等待同一线程池中的其他查询，否则可能因线程耗尽而互相等待。
+ *
+ * @author wangyg
+ */
+public class QueryExecutors {
+  public static final String THREADS_PROPERTY = "topsoft.search.query.threads";
+  public static final String QUEUE_CAPACITY_PROPERTY = "topsoft.search.query.queue";
+  public static final int DEFAULT_QUEUE_CAPACITY = 256;
+
+  /**
+   * 队列满时由提交任务的线程自己执行，线程池关闭后则拒绝任务，避免任务被静默丢弃导致调用方永远等待
+   */
+  public static final RejectedExecutionHandler CALLER_RUNS = new RejectedExecutionHandler() {
+    @Override
+    public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+      if (executor.isShutdown()) {
+        throw new RejectedExecutionException("The query executor has been shut down!");
+      }
+      r.run();
+    }
+  };
+
+  /**
+   * Cannot instantiate
+   */
+  private QueryExecutors() {
+  }
+
+  /**
+   * @return 本库管理的共享查询线程池，线程均为守护线程，无须调用方关闭
+   */
+  public static ListeningExecutorService defaultExecutor() {
+    return DefaultExecutorHolder.INSTANCE;
+  }
+
+  /**
+   * 执行流式查询的共享线程池，线程数与 {@link #defaultExecutor()} 相同。流式查询的读取方就是提交查询的线程，
+   * 不能由其自己执行查询，因此队列满时直接拒绝并抛出 {@link RejectedExecutionException}
+   *
+   * @return 本库管理的流式查询线程池，线程均为守护线程，无须调用方关闭
+   */
+  public static ListeningExecutorService streamExecutor() {
+    return StreamExecutorHolder.INSTANCE;
+  }
+
+  public static ListeningExecutorService newQueryExecutor(String name, int threads, int queueCapacity) {
+    return newQueryExecutor(name, threads, queueCapacity, CALLER_RUNS);
+  }
+
+  /**
+   * 创建有界的查询线程池，空闲线程一分钟后回收
+   *
+   * @param name          线程名前缀
+   * @param threads       最大线程数
+   * @param queueCapacity 等待队列长度
+   * @param handler       队列满时的拒绝策略
+   * @return 查询线程池，由调用方负责关闭
+   */
+  public static ListeningExecutorService newQueryExecutor(String name, int threads, int queueCapacity,
+                                                         RejectedExecutionHandler handler) {
+    checkArgument(threads > 0, "threads must greater than zero!");
+    checkArgument(queueCapacity > 0, "queueCapacity must greater than zero!");
+    checkNotNull(handler, "handler must not be null!");
+
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+        new ArrayBlockingQueue<Runnable>(queueCapacity),
+        new ThreadFactoryBuilder().setNameFormat(checkNotNull(name) + "-%d").setDaemon(true).build(),
+        handler);
+    executor.allowCoreThreadTimeOut(true);
+
+    return MoreExecutors.listeningDecorator(executor);
+  }
+
+  private static class DefaultExecutorHolder {
+    static final ListeningExecutorService INSTANCE = newQueryExecutor("solr-query",
+        Integer.getInteger(THREADS_PROPERTY, Runtime.getRuntime().availableProcessors() * 2),
+        Integer.getInteger(QUEUE_CAPACITY_PROPERTY, DEFAULT_QUEUE_CAPACITY));
+  }
+
+  private static class StreamExecutorHolder {
+    static final ListeningExecutorService INSTANCE = newQueryExecutor("solr-stream",
+        Integer.getInteger(THREADS_PROPERTY, Runtime.getRuntime().availableProcessors() * 2),
+        Integer.getInteger(QUEUE_CAPACITY_PROPERTY, DEFAULT_QUEUE_CAPACITY),
+        new ThreadPoolExecutor.AbortPolicy());
+  }
+}
@@ -0,0 +1,225 @@
+package com.topsoft.search;
+
+import com.google.common.base.CharMatcher;
+import com.google.common.base.Objects;
+import com.google.common.base.Predicate;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.Weigher;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.*;
+
+/**
+ * <p>客户端的查询结果缓存，由调用方显式启用
+ * <p>缓存键由core名称、规范化后的查询字符串(去掉首尾空白，连续空白合并为一个空格)及查询配置的指纹组成，
+ * 指纹用于区分同一查询字符串下不同的分页、返回字段或转换方式。缓存的结果必须是不可变的。
+ * <p>可以按条目数或按权重限制缓存大小，权重为结果的元素个数加1；写入超过ttl后失效。
+ * 索引更新后可调用 {@link #invalidateCore(String)}，或在数据导入结束的回调中执行 {@link #invalidator(String...)}。
+ * 不要在导入开始时使缓存失效，导入期间的查询会把旧的结果重新缓存到ttl结束。
+ *
+ * @author wangyg
+ */
+public class QueryResultCache {
+  public static final long DEFAULT_MAXIMUM_WEIGHT = 1000000;
+  public static final long DEFAULT_TTL_SECONDS = 600;
+
+  private static final Weigher<Key, Object> RESULT_WEIGHER = new Weigher<Key, Object>() {
+    @Override
+    public int weigh(Key key, Object value) {
+      if (value instanceof Collection) {
+        return ((Collection) value).size() + 1;
+      }
+      return 1;
+    }
+  };
+
+  private final Cache<Key, Object> cache;
+
+  private QueryResultCache(Builder builder) {
+    CacheBuilder<Object, Object> cacheBuilder = CacheBuilder.newBuilder()
+        .expireAfterWrite(builder.ttlNanos, TimeUnit.NANOSECONDS);
+    if (builder.maximumSize >= 0) {
+      cacheBuilder.maximumSize(builder.maximumSize);
+    } else {
+      cacheBuilder.maximumWeight(builder.maximumWeight).weigher(RESULT_WEIGHER);
+    }
+    if (builder.recordStats) {
+      cacheBuilder.recordStats();
+    }
+    this.cache = cacheBuilder.build();
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * 生成缓存键
+   *
+   * @param core        core名称
+   * @param queryString 符合solr查询语法的字符串
+   * @param fingerprint 查询配置的指纹，例如返回字段及分页信息
+   */
+  public static Key key(String core, String queryString, String fingerprint) {
+    return new Key(core, queryString, fingerprint);
+  }
+
+  /**
+   * 返回缓存的结果，没有时在调用线程中执行loader并缓存其结果；同一个键同时只会执行一次loader
+   */
+  @SuppressWarnings("unchecked")
+  public <V> V get(Key key, Callable<? extends V> loader) {
+    try {
+      return (V) cache.get(key, loader);
+    } catch (ExecutionException e) {
+      throw Throwables.propagate(e.getCause());
+    } catch (UncheckedExecutionException e) {
+      throw Throwables.propagate(e.getCause());
+    }
+  }
+
+  @Nullable
+  @SuppressWarnings("unchecked")
+  public <V> V getIfPresent(Key key) {
+    return (V) cache.getIfPresent(key);
+  }
+
+  public void put(Key key, Object result) {
+    cache.put(key, checkNotNull(result, "result must not be null!"));
+  }
+
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  /**
+   * 使某些core的所有缓存结果失效
+   */
+  public void invalidateCore(String... cores) {
+    final Set<String> coreNames = ImmutableSet.copyOf(cores);
+    cache.invalidateAll(Iterables.filter(cache.asMap().keySet(), new Predicate<Key>() {
+      @Override
+      public boolean apply(@Nullable Key input) {
+        return coreNames.contains(input.core);
+      }
+    }));
+  }
+
+  /**
+   * 返回使某些core缓存失效的任务，应在数据导入结束后执行，例如数据导入调度的导入结束回调
+   */
+  public Runnable invalidator(final String... cores) {
+    checkNotNull(cores, "cores must not be null!");
+    return new Runnable() {
+      @Override
+      public void run() {
+        if (cores.length == 0) {
+          invalidateAll();
+        } else {
+          invalidateCore(cores);
+        }
+      }
+    };
+  }
+
+  public long size() {
+    return cache.size();
+  }
+
+  /**
+   * 只有使用 {@link Builder#recordStats()} 创建的缓存才会记录统计信息
+   */
+  public CacheStats stats() {
+    return cache.stats();
+  }
+
+  public static final class Key {
+    private final String core;
+    private final String queryString;
+    private final String fingerprint;
+    private final int hashCode;
+
+    private Key(String core, String queryString, String fingerprint) {
+      this.core = checkNotNull(core, "core must not be null!");
+      this.queryString = CharMatcher.WHITESPACE.trimAndCollapseFrom(checkNotNull(queryString, "queryString must not be null!"), ' ');
+      this.fingerprint = Objects.firstNonNull(fingerprint, "");
+      this.hashCode = Objects.hashCode(this.core, this.queryString, this.fingerprint);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (!(o instanceof Key)) return false;
+
+      Key that = (Key) o;
+      return hashCode == that.hashCode && core.equals(that.core) && queryString.equals(that.queryString)
+          && fingerprint.equals(that.fingerprint);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    public String toString() {
+      return core + ":" + queryString + "#" + fingerprint;
+    }
+  }
+
+  public static class Builder {
+    private long maximumSize = -1;
+    private long maximumWeight = DEFAULT_MAXIMUM_WEIGHT;
+    private long ttlNanos = TimeUnit.SECONDS.toNanos(DEFAULT_TTL_SECONDS);
+    private boolean recordStats;
+
+    private Builder() {
+    }
+
+    /**
+     * 按条目数限制缓存大小，设置后不再按权重限制
+     */
+    public Builder setMaximumSize(long maximumSize) {
+      checkArgument(maximumSize >= 0, "maximumSize must not be negative!");
+      this.maximumSize = maximumSize;
+      return this;
+    }
+
+    /**
+     * 按权重(所有结果的元素个数)限制缓存大小，默认为 {@link #DEFAULT_MAXIMUM_WEIGHT}
+     */
+    public Builder setMaximumWeight(long maximumWeight) {
+      checkArgument(maximumWeight >= 0, "maximumWeight must not be negative!");
+      this.maximumWeight = maximumWeight;
+      this.maximumSize = -1;
+      return this;
+    }
+
+    public Builder setTtl(long ttl, TimeUnit unit) {
+      checkArgument(ttl > 0, "ttl must greater than zero!");
+      this.ttlNanos = checkNotNull(unit, "unit must not be null!").toNanos(ttl);
+      return this;
+    }
+
+    public Builder recordStats() {
+      this.recordStats = true;
+      return this;
+    }
+
+    public QueryResultCache build() {
+      return new QueryResultCache(this);
+    }
+  }
+}
@@ -0,0 +1,158 @@
+package com.topsoft.search;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.*;
+
+/**
+ * <p>访问solr服务器的http连接池配置
+ * <p>同一个 {@link HttpSolrServerCache} 中的所有 {@link org.apache.solr.client.solrj.impl.HttpSolrServer} 共用一个连接池，
+ * 同一个base url下的所有core属于同一个route，共享 {@link #getMaxConnectionsPerRoute()} 个连接。
+ *
+ * @author wangyg
+ */
+public class SolrConnectionConfig {
+  public static final SolrConnectionConfig DEFAULT = builder().build();
+
+  private final int maxConnectionsPerRoute;
+  private final int maxConnectionsTotal;
+  private final int connectionTimeoutMillis;
+  private final int socketTimeoutMillis;
+  private final long keepAliveMillis;
+  private final long idleConnectionTimeoutMillis;
+  private final boolean allowCompression;
+
+  private SolrConnectionConfig(int maxConnectionsPerRoute, int maxConnectionsTotal, int connectionTimeoutMillis,
+                               int socketTimeoutMillis, long keepAliveMillis, long idleConnectionTimeoutMillis,
+                               boolean allowCompression) {
+    this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+    this.maxConnectionsTotal = maxConnectionsTotal;
+    this.connectionTimeoutMillis = connectionTimeoutMillis;
+    this.socketTimeoutMillis = socketTimeoutMillis;
+    this.keepAliveMillis = keepAliveMillis;
+    this.idleConnectionTimeoutMillis = idleConnectionTimeoutMillis;
+    this.allowCompression = allowCompression;
+  }
+
+  /**
+   * @return 每个route(即每个solr服务器)的最大连接数
+   */
+  public int getMaxConnectionsPerRoute() {
+    return maxConnectionsPerRoute;
+  }
+
+  /**
+   * @return 连接池的最大连接数
+   */
+  public int getMaxConnectionsTotal() {
+    return maxConnectionsTotal;
+  }
+
+  /**
+   * @return 建立连接的超时时间，0表示不超时
+   */
+  public int getConnectionTimeoutMillis() {
+    return connectionTimeoutMillis;
+  }
+
+  /**
+   * @return 等待响应数据的超时时间，0表示不超时
+   */
+  public int getSocketTimeoutMillis() {
+    return socketTimeoutMillis;
+  }
+
+  /**
+   * @return 服务器未通过 {@code Keep-Alive} 头指定时，连接保持可复用的时间
+   */
+  public long getKeepAliveMillis() {
+    return keepAliveMillis;
+  }
+
+  /**
+   * @return 空闲超过该时间的连接会被后台线程关闭
+   */
+  public long getIdleConnectionTimeoutMillis() {
+    return idleConnectionTimeoutMillis;
+  }
+
+  /**
+   * @return 是否请求solr服务器对响应进行gzip/deflate压缩，需要服务器端启用压缩才会生效
+   */
+  public boolean isAllowCompression() {
+    return allowCompression;
+  }
+
+  public static final Builder builder() {
+    return new Builder();
+  }
+
+  public static final class Builder {
+    private int maxConnectionsPerRoute = 32;
+    private int maxConnectionsTotal = 128;
+    private int connectionTimeoutMillis = 5000;
+    private int socketTimeoutMillis = 60000;
+    private long keepAliveMillis = TimeUnit.MINUTES.toMillis(1);
+    private long idleConnectionTimeoutMillis = TimeUnit.SECONDS.toMillis(30);
+    private boolean allowCompression;
+
+    public SolrConnectionConfig build() {
+      checkArgument(maxConnectionsPerRoute <= maxConnectionsTotal,
+          "maxConnectionsPerRoute must not greater than maxConnectionsTotal!");
+      return new SolrConnectionConfig(maxConnectionsPerRoute, maxConnectionsTotal, connectionTimeoutMillis,
+          socketTimeoutMillis, keepAliveMillis, idleConnectionTimeoutMillis, allowCompression);
+    }
+
+    public Builder setMaxConnectionsPerRoute(int maxConnectionsPerRoute) {
+      checkArgument(maxConnectionsPerRoute > 0, "maxConnectionsPerRoute must greater than zero!");
+      this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+      return this;
+    }
+
+    public Builder setMaxConnectionsTotal(int maxConnectionsTotal) {
+      checkArgument(maxConnectionsTotal > 0, "maxConnectionsTotal must greater than zero!");
+      this.maxConnectionsTotal = maxConnectionsTotal;
+      return this;
+    }
+
+    public Builder setConnectionTimeout(long timeout, TimeUnit unit) {
+      this.connectionTimeoutMillis = toIntMillis(timeout, unit, "connectionTimeout");
+      return this;
+    }
+
+    public Builder setSocketTimeout(long timeout, TimeUnit unit) {
+      this.socketTimeoutMillis = toIntMillis(timeout, unit, "socketTimeout");
+      return this;
+    }
+
+    public Builder setKeepAlive(long keepAlive, TimeUnit unit) {
+      checkArgument(keepAlive > 0, "keepAlive must greater than zero!");
+      this.keepAliveMillis = checkNotNull(unit, "unit must not be null!").toMillis(keepAlive);
+      return this;
+    }
+
+    public Builder setIdleConnectionTimeout(long timeout, TimeUnit unit) {
+      checkArgument(timeout > 0, "idleConnectionTimeout must greater than zero!");
+      this.idleConnectionTimeoutMillis = checkNotNull(unit, "unit must not be null!").toMillis(timeout);
+      return this;
+    }
+
+    public Builder setAllowCompression(boolean allowCompression) {
+      this.allowCompression = allowCompression;
+      return this;
+    }
+
+    private static int toIntMillis(long timeout, TimeUnit unit, String name) {
+      checkArgument(timeout >= 0, "%s must not be less than zero!", name);
+      long millis = checkNotNull(unit, "unit must not be null!").toMillis(timeout);
+      checkArgument(millis <= Integer.MAX_VALUE, "%s is too large!", name);
+      return (int) millis;
+    }
+  }
+
+  @Override
+  public String toString() {
+    return String.format("maxConnectionsPerRoute:%d, maxConnectionsTotal:%d, connectionTimeout:%dms, socketTimeout:%dms, keepAlive:%dms, idleConnectionTimeout:%dms, allowCompression:%s",
+        maxConnectionsPerRoute, maxConnectionsTotal, connectionTimeoutMillis, socketTimeoutMillis, keepAliveMillis, idleConnectionTimeoutMillis, allowCompression);
+  }
+}
@@ -1,14 +1,21 @@
 package com.topsoft.search;
 
 import com.google.common.base.Function;
-import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.topsoft.search.support.GenericSolrQueryProfile;
 import com.topsoft.search.support.GuavaFunctionResultTransformer;
+import com.topsoft.search.support.QueryPreProcessors;
+import com.topsoft.search.support.SolrDocumentStream;
+import org.apache.solr.client.solrj.StreamingResponseCallback;
+import org.apache.solr.client.solrj.response.QueryResponse;
 import org.apache.solr.common.SolrDocument;
 
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.*;
 
 /**
  * solr的简易查询类
@@ -46,12 +53,16 @@ public class SolrMultiCoreQuery {
   protected final SolrMultiCoreQueryTemplate template;
 
   public SolrMultiCoreQuery(String baseUrl) {
-    this.template = new SolrMultiCoreQueryTemplate(baseUrl);
+    this(new SolrMultiCoreQueryTemplate(baseUrl));
+  }
+
+  public SolrMultiCoreQuery(SolrMultiCoreQueryTemplate template) {
+    this.template = checkNotNull(template, "template must not be null!");
   }
 
   /**
    * 并行查询solr服务器上所有core
-   * <p>用同样的查询条件依次查询所有core，并使用{@link com.topsoft.search.support.GenericSolrQueryProfile<T>} 对象
+   * <p>用同样的查询条件并行查询所有core，并使用{@link com.topsoft.search.support.GenericSolrQueryProfile<T>} 对象
    * 对{@link org.apache.solr.client.solrj.SolrQuery}参数进行预先设置和查询结果数据进行后期转换及封装
    *
    * @param queryString 符合solr查询语法的字符串
@@ -77,15 +88,148 @@ public class SolrMultiCoreQuery {
     return template.findFrom(coreName, queryString, profile);
   }
 
+  /**
+   * 流式查询solr服务器上的某个core
+   * <p>文档在解析时逐个交给callback处理，无论命中多少文档，内存占用都不会随之增长
+   *
+   * @param coreName    core名称
+   * @param queryString 符合solr查询语法的字符串
+   * @param callback    在调用线程中逐个接收 {@link SolrDocument} 的回调对象
+   * @return 不包含文档列表的查询响应，可从中获取查询耗时等信息
+   */
+  public QueryResponse streamAllFrom(String coreName, String queryString, StreamingResponseCallback callback) {
+    return streamAllFrom(coreName, queryString, null, callback);
+  }
+
+  /**
+   * 流式查询solr服务器上的某个core
+   *
+   * @param coreName     core名称
+   * @param queryString  符合solr查询语法的字符串
+   * @param preProcessor 在查询所有记录的默认设置之后执行的 {@link QueryPreProcessor}，例如 {@link com.topsoft.search.support.Ids#ID_ONLY}，可以为 {@code null}
+   * @param callback     在调用线程中逐个接收 {@link SolrDocument} 的回调对象
+   * @return 不包含文档列表的查询响应，可从中获取查询耗时等信息
+   */
+  public QueryResponse streamAllFrom(String coreName, String queryString, QueryPreProcessor preProcessor, StreamingResponseCallback callback) {
+    return template.stream(coreName, queryString, QueryPreProcessors.chain(QueryPreProcessor.DEFAULT, preProcessor), callback);
+  }
+
+  /**
+   * 流式查询solr服务器上的某个core，使用共享的 {@link QueryExecutors#streamExecutor()} 执行查询
+   *
+   * @param coreName    core名称
+   * @param queryString 符合solr查询语法的字符串
+   * @return 逐个读取 {@link SolrDocument} 的 {@link SolrDocumentStream}，读取完毕或不再使用时需要关闭
+   */
+  public SolrDocumentStream openStreamFrom(String coreName, String queryString) {
+    return openStreamFrom(coreName, queryString, QueryExecutors.streamExecutor());
+  }
+
+  /**
+   * 流式查询solr服务器上的某个core
+   *
+   * @param coreName    core名称
+   * @param queryString 符合solr查询语法的字符串
+   * @param executor    执行查询的 {@link java.util.concurrent.ExecutorService} 对象，不能在调用线程中执行查询
+   * @return 逐个读取 {@link SolrDocument} 的 {@link SolrDocumentStream}，读取完毕或不再使用时需要关闭
+   */
+  public SolrDocumentStream openStreamFrom(String coreName, String queryString, ExecutorService executor) {
+    return template.openStream(coreName, queryString, QueryPreProcessor.DEFAULT, executor);
+  }
+
+  /**
+   * 在限定时间内并行查询solr服务器上所有core
+   * <p>超时或查询失败的core记录在返回结果中，其余core的结果照常返回，调用线程最多等待timeout时间
+   *
+   * @param queryString 符合solr查询语法的字符串
+   * @param profile     对查询参数进行预先设置和对查询结果数据进行后期转换及封装
+   * @param executor    用于执行并行查询的 {@link java.util.concurrent.ExecutorService} 的对象
+   * @param timeout     所有core共用的最长等待时间
+   * @param unit        时间单位
+   * @param <T>
+   * @return 包含已返回结果以及超时、失败core的 {@link MultiCoreResult}
+   */
+  public <T> MultiCoreResult<List<T>> findAll(String queryString, GenericSolrQueryProfile<T> profile, ExecutorService executor, long timeout, TimeUnit unit) {
+    return template.find(queryString, profile, executor, timeout, unit);
+  }
+
+  /**
+   * 异步并行查询solr服务器上所有core
+   * <p>立即返回 {@link ListenableFuture}，调用线程无须等待最慢的core，可与其他异步查询组合
+   *
+   * @param queryString 符合solr查询语法的字符串
+   * @param profile     对查询参数进行预先设置和对查询结果数据进行后期转换及封装
+   * @param executor    用于执行并行查询的 {@link java.util.concurrent.ExecutorService} 的对象
+   * @param <T>
+   * @return 一个Map结构结果集的 {@link ListenableFuture}，key为core名称，value为该core下符合查询条件的{@link List} 对象
+   */
+  public <T> ListenableFuture<Map<String, List<T>>> findAllAsync(String queryString, GenericSolrQueryProfile<T> profile, ExecutorService executor) {
+    return template.findAsync(queryString, profile, executor);
+  }
+
+  /**
+   * 异步查询solr服务器上的某个core
+   *
+   * @param coreName    core名称
+   * @param queryString 符合solr查询语法的字符串
+   * @param profile     对查询参数进行预先设置和对查询结果数据进行后期转换及封装
+   * @param executor    用于执行查询的 {@link java.util.concurrent.ExecutorService} 的对象
+   * @param <T>
+   * @return 符合查询条件的结果集合的 {@link ListenableFuture}，元素类型为T
+   */
+  public <T> ListenableFuture<List<T>> findAllFromAsync(String coreName, String queryString, GenericSolrQueryProfile<T> profile, ExecutorService executor) {
+    return template.findFromAsync(coreName, queryString, profile, executor);
+  }
+
+  /**
+   * 异步并行查询solr服务器上所有core
+   *
+   * @param queryString 符合solr查询语法的字符串
+   * @param executor    用于执行并行查询的 {@link java.util.concurrent.ExecutorService} 的对象
+   * @return 一个Map结构结果集的 {@link ListenableFuture}，key为core名称，value为该core下符合查询条件的{@link List} 对象
+   */
+  public ListenableFuture<Map<String, List<SolrDocument>>> findAllAsync(String queryString, ExecutorService executor) {
+    return findAllAsync(queryString, GenericSolrQueryProfile.DEFAULT, executor);
+  }
+
+  /**
+   * 异步并行查询solr服务器上所有core，并使用{@link com.google.common.base.Function} 对象将查询结果转换为自定义的数据结构形式
+   *
+   * @param queryString 符合solr查询语法的字符串
+   * @param function    用于将 {@link org.apache.solr.common.SolrDocument} 对象转换为 <T> 对象的 {@link com.google.common.base.Function} 函数
+   * @param executor    用于执行并行查询的 {@link java.util.concurrent.ExecutorService} 的对象
+   * @param <T>         用于封装查询结果的数据结构
+   * @return 一个Map结构结果集的 {@link ListenableFuture}，key为core名称，value为该core下符合查询条件的{@link List} 对象
+   */
+  public <T> ListenableFuture<Map<String, List<T>>> findAllAsync(String queryString, Function<SolrDocument, ? extends T> function, ExecutorService executor) {
+    GenericSolrQueryProfile<T> profile = new GenericSolrQueryProfile<T>(QueryPreProcessor.DEFAULT, new GuavaFunctionResultTransformer<T>(function));
+    return findAllAsync(queryString, profile, executor);
+  }
+
+  /**
+   * 异步查询solr服务器上的某个core，并使用{@link com.google.common.base.Function} 对象将查询结果转换为自定义的数据结构形式
+   *
+   * @param coreName    core名称
+   * @param queryString 符合solr查询语法的字符串
+   * @param function    用于将 {@link org.apache.solr.common.SolrDocument} 对象转换为 <T> 对象的 {@link com.google.common.base.Function} 函数
+   * @param executor    用于执行查询的 {@link java.util.concurrent.ExecutorService} 的对象
+   * @param <T>         用于封装查询结果的数据结构
+   * @return 符合查询条件的结果集合的 {@link ListenableFuture}，元素类型为T
+   */
+  public <T> ListenableFuture<List<T>> findAllFromAsync(String coreName, String queryString, Function<SolrDocument, ? extends T> function, ExecutorService executor) {
+    GenericSolrQueryProfile<T> profile = new GenericSolrQueryProfile<T>(QueryPreProcessor.DEFAULT, new GuavaFunctionResultTransformer<T>(function));
+    return findAllFromAsync(coreName, queryString, profile, executor);
+  }
+
   /**
    * 查询solr服务器上所有core
-   * <p>用同样的查询条件依次查询所有core
+   * <p>用同样的查询条件并行查询所有core，使用共享的 {@link QueryExecutors#defaultExecutor()}
    *
    * @param queryString 符合solr查询语法的字符串
    * @return 一个Map结构的结果集，key为core名称，value为该core下符合查询条件的{@link List} 对象
    */
   public Map<String, List<SolrDocument>> findAll(String queryString) {
-    return findAll(queryString, MoreExecutors.sameThreadExecutor());
+    return findAll(queryString, QueryExecutors.defaultExecutor());
   }
 
   /**
@@ -102,7 +246,7 @@ public class SolrMultiCoreQuery {
 
   /**
    * 查询solr服务器上所有core
-   * <p>用同样的查询条件依次查询所有core，并使用{@link com.google.common.base.Function} 对象将查询结果转换为自定义的数据结构形式
+   * <p>用同样的查询条件并行查询所有core，使用共享的 {@link QueryExecutors#defaultExecutor()}，并使用{@link com.google.common.base.Function} 对象将查询结果转换为自定义的数据结构形式
    *
    * @param queryString 符合solr查询语法的字符串
    * @param function    用于将 {@link org.apache.solr.common.SolrDocument} 对象转换为 <T> 对象的 {@link com.google.common.base.Function} 函数
@@ -110,7 +254,7 @@ public class SolrMultiCoreQuery {
    * @return 一个Map结构的结果集，key为core名称，value为该core下符合查询条件的{@link List} 对象
    */
   public <T> Map<String, List<T>> findAll(final String queryString, final Function<SolrDocument, ? extends T> function) {
-    return findAll(queryString, function, MoreExecutors.sameThreadExecutor());
+    return findAll(queryString, function, QueryExecutors.defaultExecutor());
   }
 
   /**
@@ -1,20 +1,35 @@
 package com.topsoft.search;
 
+import com.google.common.base.Function;
 import com.google.common.base.Strings;
+import com.google.common.base.Throwables;
 import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import com.topsoft.search.support.SolrDocumentStream;
+import org.apache.solr.client.solrj.ResponseParser;
 import org.apache.solr.client.solrj.SolrQuery;
 import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.client.solrj.StreamingResponseCallback;
+import org.apache.solr.client.solrj.impl.BinaryResponseParser;
 import org.apache.solr.client.solrj.impl.HttpSolrServer;
-import org.apache.solr.client.solrj.request.CoreAdminRequest;
-import org.apache.solr.client.solrj.response.CoreAdminResponse;
-import org.apache.solr.common.params.CoreAdminParams;
+import org.apache.solr.client.solrj.request.QueryRequest;
+import org.apache.solr.client.solrj.response.QueryResponse;
 
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static com.google.common.base.Preconditions.*;
 import static com.google.common.collect.Lists.*;
@@ -24,89 +39,266 @@ import static com.google.common.collect.Lists.*;
  */
 public class SolrMultiCoreQueryTemplate {
   protected final String baseUrl;
+  private final HttpSolrServerCache servers;
+  private final CoreNamesCache coreNames;
+  private final ResponseParser responseParser;
+  // 正在执行的查询，key为core名称及查询参数；未启用请求合并时为null
+  private final ConcurrentMap<String, SettableFuture<QueryResponse>> inFlightRequests;
 
   public SolrMultiCoreQueryTemplate(String baseUrl) {
-    this.baseUrl = normalizeBaseURL(baseUrl);
+    this(builder(baseUrl));
   }
 
-  public <C extends Iterable> Map<String, C> find(final String queryString, final SolrQueryProfile<? extends C> profile, ExecutorService executor) {
-    final HashMap<String, C> result = Maps.newHashMap();
+  public SolrMultiCoreQueryTemplate(String baseUrl, long coreNamesTtl, TimeUnit coreNamesTtlUnit) {
+    this(builder(baseUrl).setCoreNamesTtl(coreNamesTtl, coreNamesTtlUnit));
+  }
 
-    List<String> cores = getAllCoreNames();
+  public SolrMultiCoreQueryTemplate(String baseUrl, HttpSolrServerCache servers) {
+    this(builder(baseUrl).setServers(servers));
+  }
 
-    int size = cores.size();
-    if (size > 0) {
-      List<Callable<C>> querys = newArrayListWithCapacity(size);
+  /**
+   * @param baseUrl          solr服务器url
+   * @param servers          用于获取各core的 {@link HttpSolrServer} 实例的缓存
+   * @param coreNamesTtl     core名称列表的缓存时间，超时后由后台线程刷新
+   * @param coreNamesTtlUnit 缓存时间的单位
+   */
+  public SolrMultiCoreQueryTemplate(String baseUrl, HttpSolrServerCache servers, long coreNamesTtl, TimeUnit coreNamesTtlUnit) {
+    this(builder(baseUrl).setServers(servers).setCoreNamesTtl(coreNamesTtl, coreNamesTtlUnit));
+  }
 
-      for (final String core : cores) {
+  protected SolrMultiCoreQueryTemplate(Builder builder) {
+    this.baseUrl = normalizeBaseURL(builder.baseUrl);
+    this.servers = builder.servers == null ? HttpSolrServerCache.getInstance() : builder.servers;
+    this.coreNames = new CoreNamesCache(this.baseUrl, servers, builder.coreNamesTtl, builder.coreNamesTtlUnit);
+    this.responseParser = builder.responseParser;
+    this.inFlightRequests = builder.coalesceRequests ? new ConcurrentHashMap<String, SettableFuture<QueryResponse>>() : null;
+  }
 
-        querys.add(new Callable<C>() {
-          @Override
-          public C call() throws Exception {
-            return findFrom(core, queryString, profile);
-          }
-        });
+  public static final Builder builder(String baseUrl) {
+    return new Builder(baseUrl);
+  }
 
-      }
+  public <C extends Iterable> Map<String, C> find(final String queryString, final SolrQueryProfile<? extends C> profile, ExecutorService executor) {
+    try {
+      return this.<C>findAsync(queryString, profile, executor).get();
+    } catch (Exception e) {
+      throw new RuntimeException(e);
+    }
+  }
 
-      try {
-        List<Future<C>> queryResults = executor.invokeAll(querys);
+  /**
+   * 异步并行查询所有core，调用线程不会等待查询结果
+   *
+   * @param queryString 符合solr查询语法的字符串
+   * @param profile     对查询参数进行预先设置和对查询结果数据进行后期转换及封装
+   * @param executor    用于执行并行查询的 {@link ExecutorService} 的对象
+   * @return 所有core都查询完成后返回结果的 {@link ListenableFuture}，key为core名称；任一core查询失败则整体失败
+   */
+  public <C extends Iterable> ListenableFuture<Map<String, C>> findAsync(final String queryString, final SolrQueryProfile<? extends C> profile, ExecutorService executor) {
+    final List<String> cores = getAllCoreNames();
+    ListeningExecutorService service = MoreExecutors.listeningDecorator(executor);
 
-        // queryResults里的元素顺序与query一致，即一一对应。
-        for (int i = 0; i < queryResults.size(); i++) {
-          Future<C> future = queryResults.get(i);
-          result.put(cores.get(i), future.get());
-        }
+    List<ListenableFuture<C>> futures = newArrayListWithCapacity(cores.size());
+    for (String core : cores) {
+      futures.add(this.<C>findFromAsync(core, queryString, profile, service));
+    }
+
+    return Futures.transform(Futures.allAsList(futures), new Function<List<C>, Map<String, C>>() {
+      @Override
+      public Map<String, C> apply(List<C> results) {
+        HashMap<String, C> result = Maps.newHashMap();
 
-      } catch (Exception e) {
-        throw new RuntimeException(e);
+        // results里的元素顺序与cores一致，即一一对应。
+        for (int i = 0; i < results.size(); i++) {
+          result.put(cores.get(i), results.get(i));
+        }
+        return result;
       }
+    });
+  }
 
+  /**
+   * 在限定时间内并行查询所有core
+   * <p>超时或查询失败的core不会导致整个查询失败，而是记录在返回的 {@link MultiCoreResult} 中，
+   * 调用线程最多等待timeout时间。
+   *
+   * @param queryString 符合solr查询语法的字符串
+   * @param profile     对查询参数进行预先设置和对查询结果数据进行后期转换及封装
+   * @param executor    用于执行并行查询的 {@link ExecutorService} 的对象
+   * @param timeout     所有core共用的最长等待时间
+   * @param unit        时间单位
+   * @return 包含已返回结果以及超时、失败core的 {@link MultiCoreResult}
+   */
+  public <C extends Iterable> MultiCoreResult<C> find(String queryString, SolrQueryProfile<? extends C> profile, ExecutorService executor, long timeout, TimeUnit unit) {
+    ListeningExecutorService service = MoreExecutors.listeningDecorator(executor);
+
+    Map<String, ListenableFuture<C>> futures = Maps.newLinkedHashMap();
+    for (String core : getAllCoreNames()) {
+      futures.put(core, this.<C>findFromAsync(core, queryString, profile, service));
     }
-    return result;
+
+    return MultiCoreResult.collect(futures, timeout, unit);
+  }
+
+  /**
+   * 异步查询某个core，调用线程不会等待查询结果
+   *
+   * @param core        core名称
+   * @param queryString 符合solr查询语法的字符串
+   * @param profile     对查询参数进行预先设置和对查询结果数据进行后期转换及封装
+   * @param executor    用于执行查询的 {@link ExecutorService} 的对象
+   * @return 查询结果的 {@link ListenableFuture}
+   */
+  public <C extends Iterable> ListenableFuture<C> findFromAsync(final String core, final String queryString, final SolrQueryProfile<? extends C> profile, ExecutorService executor) {
+    return MoreExecutors.listeningDecorator(executor).submit(new Callable<C>() {
+      @Override
+      public C call() throws Exception {
+        return findFrom(core, queryString, profile);
+      }
+    });
   }
 
   public <C extends Iterable> C findFrom(String core, String queryString, SolrQueryProfile<? extends C> profile) {
     final SolrQuery solrQuery = new SolrQuery(queryString);
     profile.prepare(solrQuery);
+    QueryResponse response = inFlightRequests == null ? query(core, solrQuery) : coalescedQuery(core, solrQuery);
+    return profile.transform(response);
+  }
+
+  /**
+   * 向某个core发送查询请求
+   */
+  QueryResponse query(String core, SolrQuery solrQuery) {
+    QueryRequest request = new QueryRequest(solrQuery);
+    request.setResponseParser(responseParser);
     try {
-      return profile.transform(getCore(core).query(solrQuery));
+      return request.process(getCore(core));
     } catch (SolrServerException e) {
       throw new RuntimeException(e);
     }
   }
 
   /**
-   * 查询该solr服务器下所有的core
-   *
-   * @return 所有的core名称列表
+   * 将要等待正在执行的相同查询时调用，此时已取得该查询的 {@link SettableFuture}，供测试同步
    */
-  public List<String> getAllCoreNames() {
-    CoreAdminRequest request = new CoreAdminRequest();
-    request.setAction(CoreAdminParams.CoreAdminAction.STATUS);
-
-    HttpSolrServer server = getCache().getUnchecked(baseUrl);
-    try {
-      CoreAdminResponse response = request.process(server);
+  void joinedInFlight(String key) {
+  }
 
-      List<String> result = newArrayList();
-      for (int i = 0; i < response.getCoreStatus().size(); i++) {
-        result.add(response.getCoreStatus().getName(i));
+  /**
+   * 相同core及查询参数的查询正在执行时，等待并共用其响应，不再重复发送请求
+   */
+  private QueryResponse coalescedQuery(String core, SolrQuery solrQuery) {
+    String key = core + '?' + solrQuery;
+    SettableFuture<QueryResponse> future = SettableFuture.create();
+    SettableFuture<QueryResponse> inFlight = inFlightRequests.putIfAbsent(key, future);
+    if (inFlight != null) {
+      joinedInFlight(key);
+      // 可被中断，超时取消时不会占住等待的线程
+      try {
+        return inFlight.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        CancellationException cancellation = new CancellationException("Interrupted while waiting for " + key);
+        cancellation.initCause(e);
+        throw cancellation;
+      } catch (ExecutionException e) {
+        throw Throwables.propagate(e.getCause());
       }
-      return result;
+    }
 
-    } catch (Exception e) {
+    try {
+      QueryResponse response = query(core, solrQuery);
+      future.set(response);
+      return response;
+    } catch (RuntimeException e) {
+      future.setException(e);
+      throw e;
+    } catch (Error e) {
+      future.setException(e);
+      throw e;
+    } finally {
+      inFlightRequests.remove(key, future);
+    }
+  }
+
+  /**
+   * 流式查询某个core，每解析出一个文档就交给callback处理，不会在内存中保留整个结果集
+   * <p>流式查询总是使用javabin格式，不受 {@link Builder#setResponseParser(ResponseParser)} 影响；callback在调用线程中执行。
+   *
+   * @param core         core名称
+   * @param queryString  符合solr查询语法的字符串
+   * @param preProcessor 对查询参数进行预先设置
+   * @param callback     逐个接收文档的回调对象
+   * @return 不包含文档列表的查询响应
+   */
+  public QueryResponse stream(String core, String queryString, QueryPreProcessor preProcessor, StreamingResponseCallback callback) {
+    checkNotNull(callback, "callback must not be null!");
+    final SolrQuery solrQuery = new SolrQuery(queryString);
+    preProcessor.prepare(solrQuery);
+    try {
+      return getCore(core).queryAndStreamResponse(solrQuery, callback);
+    } catch (SolrServerException e) {
+      throw new RuntimeException(e);
+    } catch (IOException e) {
       throw new RuntimeException(e);
     }
+  }
 
+  /**
+   * 在executor中执行流式查询，返回可逐个读取文档的 {@link SolrDocumentStream}
+   * <p>executor不能在调用线程中执行查询(例如 {@code MoreExecutors.sameThreadExecutor()})，否则队列满时会永远等待。
+   *
+   * @param core         core名称
+   * @param queryString  符合solr查询语法的字符串
+   * @param preProcessor 对查询参数进行预先设置
+   * @param executor     执行查询的 {@link ExecutorService} 对象
+   * @return 读取完毕或不再使用时需要关闭的 {@link SolrDocumentStream}
+   */
+  public SolrDocumentStream openStream(final String core, final String queryString, final QueryPreProcessor preProcessor, ExecutorService executor) {
+    final SolrDocumentStream stream = new SolrDocumentStream();
+    executor.execute(new Runnable() {
+      @Override
+      public void run() {
+        Throwable failure = null;
+        try {
+          stream(core, queryString, preProcessor, stream.getCallback());
+        } catch (Throwable t) {
+          failure = t;
+        } finally {
+          stream.finish(failure);
+        }
+      }
+    });
+    return stream;
   }
 
-  protected final HttpSolrServer getCore(String coreName) {
-    return getCache().getUnchecked(baseUrl + "/" + coreName);
+  /**
+   * 查询该solr服务器下所有的core
+   * <p>结果来自 {@link CoreNamesCache}，不会每次都请求 {@code /admin/cores}
+   *
+   * @return 所有的core名称列表
+   */
+  public List<String> getAllCoreNames() {
+    return coreNames.get();
+  }
+
+  /**
+   * core发生增删后调用，使缓存的core名称列表立即失效
+   */
+  public void invalidateCoreNames() {
+    coreNames.invalidate();
+  }
+
+  /**
+   * 在后台重新加载core名称列表
+   */
+  public void refreshCoreNames() {
+    coreNames.refresh();
   }
 
-  private HttpSolrServerCache getCache() {
-    return HttpSolrServerCache.getInstance();
+  protected final HttpSolrServer getCore(String coreName) {
+    return servers.getUnchecked(baseUrl + "/" + coreName);
   }
 
   protected String normalizeBaseURL(String baseURL) {
@@ -118,4 +310,55 @@ public class SolrMultiCoreQueryTemplate {
 
     return baseURL.trim().toLowerCase();
   }
+
+  public static final class Builder {
+    private final String baseUrl;
+    private HttpSolrServerCache servers;
+    private long coreNamesTtl = CoreNamesCache.DEFAULT_TTL_SECONDS;
+    private TimeUnit coreNamesTtlUnit = TimeUnit.SECONDS;
+    private ResponseParser responseParser = new BinaryResponseParser();
+    private boolean coalesceRequests;
+
+    private Builder(String baseUrl) {
+      this.baseUrl = baseUrl;
+    }
+
+    public SolrMultiCoreQueryTemplate build() {
+      return new SolrMultiCoreQueryTemplate(this);
+    }
+
+    /**
+     * 默认使用 {@link HttpSolrServerCache#getInstance()}
+     */
+    public Builder setServers(HttpSolrServerCache servers) {
+      this.servers = checkNotNull(servers, "servers must not be null!");
+      return this;
+    }
+
+    public Builder setCoreNamesTtl(long coreNamesTtl, TimeUnit coreNamesTtlUnit) {
+      checkArgument(coreNamesTtl > 0, "coreNamesTtl must greater than zero!");
+      this.coreNamesTtl = coreNamesTtl;
+      this.coreNamesTtlUnit = checkNotNull(coreNamesTtlUnit, "coreNamesTtlUnit must not be null!");
+      return this;
+    }
+
+    /**
+     * 设置解析查询响应的 {@link ResponseParser}，默认为javabin格式的 {@link BinaryResponseParser}。
+     * <p>同一个parser会被所有查询线程共用，必须是线程安全的。
+     */
+    public Builder setResponseParser(ResponseParser responseParser) {
+      this.responseParser = checkNotNull(responseParser, "responseParser must not be null!");
+      return this;
+    }
+
+    /**
+     * 是否合并相同的并发查询，默认不合并
+     * <p>合并后，core名称及查询参数完全相同的查询正在执行时，后来的查询直接等待并共用同一个 {@link QueryResponse}，
+     * 适用于大量用户同时执行相同查询的场景。共用的响应及其中的文档只能读取，不能修改。
+     */
+    public Builder setCoalesceRequests(boolean coalesceRequests) {
+      this.coalesceRequests = coalesceRequests;
+      return this;
+    }
+  }
 }
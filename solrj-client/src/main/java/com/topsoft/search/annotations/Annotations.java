@@ -1,176 +1,59 @@
 package com.topsoft.search.annotations;
 
-import com.google.common.base.Function;
-import com.google.common.base.Predicate;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
-import com.google.common.collect.FluentIterable;
-import com.google.common.collect.Iterables;
-import com.google.common.collect.Sets;
 
-import javax.annotation.Nullable;
-import java.lang.reflect.Field;
 import java.util.Set;
 
 import static com.google.common.base.Preconditions.*;
 
 /**
+ * 读取 {@link DocumentId}、{@link Highlight} 及 {@link org.apache.solr.client.solrj.beans.Field} 标注信息的工具类，
+ * 每个类只解析一次，结果缓存为不可变的 {@link DocumentMetadata}
+ *
  * @author wangyg
  */
 public class Annotations {
-  private static final LoadingCache<Class, Set<AnnotatedField>> cache = CacheBuilder.newBuilder()
-      .build(new CacheLoader<Class, Set<AnnotatedField>>() {
+  private static final LoadingCache<Class, DocumentMetadata> cache = CacheBuilder.newBuilder()
+      .build(new CacheLoader<Class, DocumentMetadata>() {
         @Override
-        public Set<AnnotatedField> load(Class key) throws Exception {
-          return collectAnnotationInfo(key);
+        public DocumentMetadata load(Class key) throws Exception {
+          return DocumentMetadata.of(key);
         }
       });
 
-  private static final Predicate<AnnotatedField> isHighlight = new Predicate<AnnotatedField>() {
-    @Override
-    public boolean apply(@Nullable AnnotatedField input) {
-      return input.isHighlight();
-    }
-  };
-
-  private static final Predicate<AnnotatedField> isDocumentId = new Predicate<AnnotatedField>() {
-    @Override
-    public boolean apply(@Nullable AnnotatedField input) {
-      return input.isDocumentId();
-    }
-  };
+  /**
+   * Cannot instantiate
+   */
+  private Annotations() {
+  }
 
-  private static final Function<AnnotatedField, String> getName = new Function<AnnotatedField, String>() {
-    @Nullable
-    @Override
-    public String apply(@Nullable AnnotatedField input) {
-      return input.getName();
-    }
-  };
+  public static final DocumentMetadata getMetadata(Class annotatedClass) {
+    return cache.getUnchecked(checkNotNull(annotatedClass, "annotatedClass must not be null!"));
+  }
 
   public static final Set<String> getHighlightFieldNames(Class annotatedClass) {
-    Set<AnnotatedField> fields = cache.getUnchecked(annotatedClass);
-    return FluentIterable.from(fields).filter(isHighlight).transform(getName).toImmutableSet();
+    return getMetadata(annotatedClass).getHighlightFieldNames();
   }
 
   public static final String getDocumentIdName(Class annotatedClass) {
-    Set<AnnotatedField> fields = cache.getUnchecked(annotatedClass);
-    return Iterables.tryFind(fields, isDocumentId).or(AnnotatedField.NO_EXIST).getName();
+    return getMetadata(annotatedClass).getDocumentIdName();
   }
 
   public static final <T, T2 extends T> String getDocumentIdValue(Class<T> annotatedClass, T2 bean) throws IllegalAccessException {
-    Field idField = Iterables.tryFind(cache.getUnchecked(annotatedClass), isDocumentId).or(AnnotatedField.NO_EXIST).getField();
-    return idField == null ? null : String.valueOf(idField.get(bean));
+    DocumentMetadata metadata = getMetadata(annotatedClass);
+    return metadata.hasDocumentId() ? String.valueOf(metadata.getDocumentId(bean)) : null;
   }
 
-  private static Set<AnnotatedField> collectAnnotationInfo(Class annotatedClass) {
-    Set<AnnotatedField> results = Sets.newHashSet();
-    Class superClass = annotatedClass;
-
-    int documentIdPresentNum = 0;
-    while (superClass != null && superClass != Object.class) {
-      Field[] declaredFields = superClass.getDeclaredFields();
-
-      for (Field declaredField : declaredFields) {
-        boolean documentIdPresent = declaredField.isAnnotationPresent(DocumentId.class);
-        boolean highlightPresent = declaredField.isAnnotationPresent(Highlight.class);
-        if (documentIdPresent) {
-          documentIdPresentNum++;
-        }
-        if (highlightPresent || documentIdPresent) {
-          declaredField.setAccessible(true);
-          results.add(new AnnotatedField(declaredField));
-        }
-      }
-
-      superClass = superClass.getSuperclass();
-    }
-
-    String errorMessageTemplate = "There are %s fields was annotated with @DocumentId, It must be only once!";
-    checkState(documentIdPresentNum <= 1, errorMessageTemplate, documentIdPresentNum);
-
-    return results;
-  }
-
-  private static class AnnotatedField {
-    private String name;
-    private Field field;
-    private boolean highlight;
-    private boolean documentId;
-
-
-    public static final AnnotatedField NO_EXIST = new AnnotatedField();
-
-    AnnotatedField() {
-
-    }
-
-    AnnotatedField(Field field) {
-      this.field = field;
-      this.highlight = field.isAnnotationPresent(Highlight.class);
-      this.documentId = field.isAnnotationPresent(DocumentId.class);
-      setName(field);
-    }
-
-    private void setName(Field field) {
-
-      if (field.isAnnotationPresent(org.apache.solr.client.solrj.beans.Field.class)) {
-        org.apache.solr.client.solrj.beans.Field annotation = field.getAnnotation(org.apache.solr.client.solrj.beans.Field.class);
-        if (!org.apache.solr.client.solrj.beans.Field.DEFAULT.equals(annotation.value())) {
-          // Field没采用默认值，说明设置了字段名，优先级最高，按照此值作为solr字段映射名
-          this.name = annotation.value();
-        }
-      } else {
-        // 没有被Field标注，或Field没有设置字段名，继续检查highlight及documentId标注是否设置了字段名
-        String documentIdName = null;
-        String highlightName = null;
-        if (isDocumentId()) {
-          documentIdName = getDocumentIdName();
-          this.name = documentIdName;
-        }
-
-        if (isHighlight()) {
-          highlightName = getHighlightName();
-          this.name = highlightName;
-        }
-
-        if (isDocumentId() && isHighlight()) {
-          String errorMessageTemplate = "@DocumentId[value=\"%s\"] and @Highlight[value=\"%s\"] must have same value!";
-          checkArgument(documentIdName.equals(highlightName), errorMessageTemplate, documentIdName, highlightName);
-        }
-
-      }
-    }
-
-    private String getHighlightName() {
-      Highlight annotation = field.getAnnotation(Highlight.class);
-      return annotation.DEFAULT.equals(annotation.value()) ? field.getName() : annotation.value();
-    }
-
-    private String getDocumentIdName() {
-      DocumentId annotation = field.getAnnotation(DocumentId.class);
-      return annotation.DEFAULT.equals(annotation.value()) ? field.getName() : annotation.value();
-    }
-
-    public String getName() {
-      return name;
-    }
-
-    public Field getField() {
-      return field;
-    }
-
-    public String getBeanPropertyName() {
-      return field == null ? null : field.getName();
-    }
-
-    public boolean isHighlight() {
-      return highlight;
-    }
-
-    public boolean isDocumentId() {
-      return documentId;
-    }
+  /**
+   * 返回转换该类的对象所需的全部solr字段名，包括 {@link org.apache.solr.client.solrj.beans.Field}、{@link DocumentId}
+   * 及 {@link Highlight} 标注的字段，每个类只解析一次
+   *
+   * @param annotatedClass 使用annotation标注的类
+   * @return 按声明顺序排列的字段名，可能包含 {@code *_s} 这样的动态字段名
+   */
+  public static final Set<String> getFieldNames(Class annotatedClass) {
+    return getMetadata(annotatedClass).getFieldNames();
   }
 }
@@ -0,0 +1,162 @@
+package com.topsoft.search.annotations;
+
+import com.google.common.collect.ImmutableSet;
+import com.topsoft.search.domain.HighlightFields;
+
+import javax.annotation.Nullable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.*;
+
+/**
+ * <p>某个类的annotation信息，由 {@link Annotations#getMetadata(Class)} 为每个类解析一次，之后所有读取都不再分配对象
+ * <p>字段名的确定规则: {@link org.apache.solr.client.solrj.beans.Field} 设置了字段名时以其为准，
+ * 否则使用 {@link DocumentId}/{@link Highlight} 设置的字段名(两者都设置时必须一致)，都未设置时使用类的字段名。
+ *
+ * @author wangyg
+ */
+public final class DocumentMetadata {
+  private final Class<?> annotatedClass;
+  private final Set<String> highlightFieldNames;
+  private final HighlightFields highlightFields;
+  private final String documentIdName;
+  private final Field documentIdField;
+  private final Set<String> fieldNames;
+
+  private DocumentMetadata(Class<?> annotatedClass, Set<String> highlightFieldNames, @Nullable Field documentIdField,
+                           @Nullable String documentIdName, Set<String> fieldNames) {
+    this.annotatedClass = annotatedClass;
+    this.highlightFieldNames = highlightFieldNames;
+    this.highlightFields = HighlightFields.of(highlightFieldNames);
+    this.documentIdField = documentIdField;
+    this.documentIdName = documentIdName;
+    this.fieldNames = fieldNames;
+  }
+
+  static DocumentMetadata of(Class<?> annotatedClass) {
+    ImmutableSet.Builder<String> highlightFieldNames = ImmutableSet.builder();
+    ImmutableSet.Builder<String> fieldNames = ImmutableSet.builder();
+    Field documentIdField = null;
+    String documentIdName = null;
+    int documentIdPresentNum = 0;
+
+    Class<?> superClass = annotatedClass;
+    while (superClass != null && superClass != Object.class) {
+      for (Field declaredField : superClass.getDeclaredFields()) {
+        org.apache.solr.client.solrj.beans.Field field = declaredField.getAnnotation(org.apache.solr.client.solrj.beans.Field.class);
+        DocumentId documentId = declaredField.getAnnotation(DocumentId.class);
+        Highlight highlight = declaredField.getAnnotation(Highlight.class);
+        if (field == null && documentId == null && highlight == null) {
+          continue;
+        }
+
+        String name = nameOf(declaredField, field, documentId, highlight);
+        fieldNames.add(name);
+        if (highlight != null) {
+          highlightFieldNames.add(name);
+        }
+        if (documentId != null) {
+          documentIdPresentNum++;
+          declaredField.setAccessible(true);
+          documentIdField = declaredField;
+          documentIdName = name;
+        }
+      }
+
+      for (Method declaredMethod : superClass.getDeclaredMethods()) {
+        org.apache.solr.client.solrj.beans.Field field = declaredMethod.getAnnotation(org.apache.solr.client.solrj.beans.Field.class);
+        if (field != null) {
+          fieldNames.add(org.apache.solr.client.solrj.beans.Field.DEFAULT.equals(field.value()) ? propertyName(declaredMethod) : field.value());
+        }
+      }
+
+      superClass = superClass.getSuperclass();
+    }
+
+    String errorMessageTemplate = "There are %s fields was annotated with @DocumentId, It must be only once!";
+    checkState(documentIdPresentNum <= 1, errorMessageTemplate, documentIdPresentNum);
+
+    return new DocumentMetadata(annotatedClass, highlightFieldNames.build(), documentIdField, documentIdName, fieldNames.build());
+  }
+
+  private static String nameOf(Field declaredField, @Nullable org.apache.solr.client.solrj.beans.Field field,
+                               @Nullable DocumentId documentId, @Nullable Highlight highlight) {
+    if (field != null && !org.apache.solr.client.solrj.beans.Field.DEFAULT.equals(field.value())) {
+      // Field设置了字段名，优先级最高，按照此值作为solr字段映射名
+      return field.value();
+    }
+
+    String documentIdName = documentId == null || DocumentId.DEFAULT.equals(documentId.value()) ? null : documentId.value();
+    String highlightName = highlight == null || Highlight.DEFAULT.equals(highlight.value()) ? null : highlight.value();
+    if (documentIdName != null && highlightName != null) {
+      String errorMessageTemplate = "@DocumentId[value=\"%s\"] and @Highlight[value=\"%s\"] must have same value!";
+      checkArgument(documentIdName.equals(highlightName), errorMessageTemplate, documentIdName, highlightName);
+    }
+
+    if (documentIdName != null) {
+      return documentIdName;
+    }
+    return highlightName != null ? highlightName : declaredField.getName();
+  }
+
+  // 与DocumentObjectBinder一致，setXxx方法对应xxx字段
+  private static String propertyName(Method setter) {
+    String name = setter.getName().startsWith("set") ? setter.getName().substring(3) : setter.getName();
+    return name.isEmpty() ? name : Character.toLowerCase(name.charAt(0)) + name.substring(1);
+  }
+
+  public Class<?> getAnnotatedClass() {
+    return annotatedClass;
+  }
+
+  /**
+   * @return 被 {@link Highlight} 标注的字段名
+   */
+  public Set<String> getHighlightFieldNames() {
+    return highlightFieldNames;
+  }
+
+  /**
+   * @return 与 {@link #getHighlightFieldNames()} 顺序一致的 {@link HighlightFields}
+   */
+  public HighlightFields getHighlightFields() {
+    return highlightFields;
+  }
+
+  /**
+   * @return 被 {@link DocumentId} 标注的字段名，没有时返回 {@code null}
+   */
+  @Nullable
+  public String getDocumentIdName() {
+    return documentIdName;
+  }
+
+  public boolean hasDocumentId() {
+    return documentIdField != null;
+  }
+
+  /**
+   * 读取对象的id值，字段在解析时已设置为可访问
+   *
+   * @return 没有 {@link DocumentId} 标注的字段时返回 {@code null}
+   */
+  @Nullable
+  public Object getDocumentId(Object bean) throws IllegalAccessException {
+    return documentIdField == null ? null : documentIdField.get(bean);
+  }
+
+  /**
+   * @return 转换该类的对象所需的全部solr字段名，包括 {@link org.apache.solr.client.solrj.beans.Field}、{@link DocumentId}
+   * 及 {@link Highlight} 标注的字段
+   */
+  public Set<String> getFieldNames() {
+    return fieldNames;
+  }
+
+  @Override
+  public String toString() {
+    return annotatedClass.getName() + "{id=" + documentIdName + ", highlights=" + highlightFieldNames + ", fields=" + fieldNames + "}";
+  }
+}
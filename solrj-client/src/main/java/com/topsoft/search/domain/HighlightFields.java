@@ -0,0 +1,76 @@
+package com.topsoft.search.domain;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import java.io.Serializable;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.*;
+
+/**
+ * <p>有序的高亮字段集合，为每个字段分配固定的下标
+ * <p>同一次查询的所有 {@link HighlightWrapper} 共用一个实例，高亮内容按下标存放在数组中，
+ * 已知字段的调用方可以直接使用 {@link HighlightWrapper#getHighlight(int)} 读取。
+ *
+ * @author wangyg
+ */
+public final class HighlightFields implements Serializable {
+  private static final long serialVersionUID = 4817725036181263302L;
+  public static final HighlightFields EMPTY = new HighlightFields(ImmutableList.<String>of());
+
+  private final ImmutableList<String> names;
+  private final ImmutableMap<String, Integer> indexes;
+
+  private HighlightFields(ImmutableList<String> names) {
+    this.names = names;
+    ImmutableMap.Builder<String, Integer> builder = ImmutableMap.builder();
+    for (int i = 0; i < names.size(); i++) {
+      builder.put(names.get(i), i);
+    }
+    this.indexes = builder.build();
+  }
+
+  public static HighlightFields of(String... names) {
+    return of(ImmutableList.copyOf(checkNotNull(names, "names must not be null!")));
+  }
+
+  public static HighlightFields of(Iterable<String> names) {
+    return new HighlightFields(ImmutableList.copyOf(checkNotNull(names, "names must not be null!")));
+  }
+
+  public int size() {
+    return names.size();
+  }
+
+  public String getName(int index) {
+    return names.get(index);
+  }
+
+  /**
+   * @return 字段不存在时返回-1
+   */
+  public int indexOf(String name) {
+    Integer index = indexes.get(name);
+    return index == null ? -1 : index;
+  }
+
+  public List<String> getNames() {
+    return names;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return this == o || (o instanceof HighlightFields && names.equals(((HighlightFields) o).names));
+  }
+
+  @Override
+  public int hashCode() {
+    return names.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return names.toString();
+  }
+}
@@ -1,41 +1,60 @@
 package com.topsoft.search.domain;
 
-import com.google.common.base.Function;
 import com.google.common.base.Joiner;
-import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
 
-import javax.annotation.Nullable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 
 import static com.google.common.base.Preconditions.*;
 
 /**
+ * <p>转换后的对象及其高亮内容
+ * <p>每个字段的多个高亮片段在创建时用 {@code ", "} 合并一次，按 {@link HighlightFields} 的下标存放，
+ * {@link #getHighlights()} 返回基于该数组的不可变Map。
+ *
  * @author wangyg
  */
 public class HighlightWrapper<T> {
+  private static final Joiner COMMA_JOINER = Joiner.on(", ").skipNulls();
+
   private final T bean;
+  private final HighlightFields fields;
+  private final String[] values;
   private final Map<String, String> highlights;
 
-  private static final Function<Iterable<String>, String> COMMA_JOINER_FUNC = new Function<Iterable<String>, String>() {
-
-    private Joiner COMMA_JOINER = Joiner.on(", ").skipNulls();
-
-    @Nullable
-    @Override
-    public String apply(@Nullable Iterable<String> input) {
-      return COMMA_JOINER.join(input);
-    }
-  };
-
   public HighlightWrapper(T bean, Map<String, ? extends Iterable<String>> highlights) {
     this.bean = checkNotNull(bean, "bean must not be null!");
 
-    if (highlights == null) {
-      this.highlights = ImmutableMap.of();
+    if (highlights == null || highlights.isEmpty()) {
+      this.fields = HighlightFields.EMPTY;
+      this.values = new String[0];
     } else {
-      this.highlights = Maps.transformValues(highlights, COMMA_JOINER_FUNC);
+      this.fields = HighlightFields.of(highlights.keySet());
+      this.values = new String[fields.size()];
+      for (int i = 0; i < values.length; i++) {
+        Iterable<String> snippets = highlights.get(fields.getName(i));
+        values[i] = snippets == null ? null : COMMA_JOINER.join(snippets);
+      }
     }
+    this.highlights = new HighlightMap();
+  }
+
+  /**
+   * @param bean   转换后的对象
+   * @param fields 高亮字段集合
+   * @param values 按字段下标存放的已合并的高亮内容，没有高亮内容的字段为 {@code null}，创建后不能再修改
+   */
+  public HighlightWrapper(T bean, HighlightFields fields, String[] values) {
+    this.bean = checkNotNull(bean, "bean must not be null!");
+    this.fields = checkNotNull(fields, "fields must not be null!");
+    this.values = checkNotNull(values, "values must not be null!");
+    checkArgument(values.length == fields.size(), "values length %s does not match fields %s!", values.length, fields);
+    this.highlights = new HighlightMap();
   }
 
   public T getBean() {
@@ -45,4 +64,93 @@ public class HighlightWrapper<T> {
   public Map<String, String> getHighlights() {
     return highlights;
   }
+
+  public HighlightFields getFields() {
+    return fields;
+  }
+
+  /**
+   * 按下标读取高亮内容，下标由 {@link #getFields()} 确定
+   *
+   * @return 没有高亮内容时返回 {@code null}
+   */
+  public String getHighlight(int index) {
+    checkElementIndex(index, values.length);
+    return values[index];
+  }
+
+  /**
+   * @return 没有高亮内容时返回 {@code null}
+   */
+  public String getHighlight(String field) {
+    int index = fields.indexOf(field);
+    return index < 0 ? null : values[index];
+  }
+
+  private class HighlightMap extends AbstractMap<String, String> {
+    private Set<Entry<String, String>> entrySet;
+
+    @Override
+    public String get(Object key) {
+      return key instanceof String ? getHighlight((String) key) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return get(key) != null;
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+      if (entrySet == null) {
+        entrySet = new AbstractSet<Entry<String, String>>() {
+          @Override
+          public Iterator<Entry<String, String>> iterator() {
+            return new Iterator<Entry<String, String>>() {
+              private int next = nextIndex(0);
+
+              @Override
+              public boolean hasNext() {
+                return next < values.length;
+              }
+
+              @Override
+              public Entry<String, String> next() {
+                if (next >= values.length) {
+                  throw new NoSuchElementException();
+                }
+                Entry<String, String> entry = Maps.immutableEntry(fields.getName(next), values[next]);
+                next = nextIndex(next + 1);
+                return entry;
+              }
+
+              @Override
+              public void remove() {
+                throw new UnsupportedOperationException();
+              }
+            };
+          }
+
+          @Override
+          public int size() {
+            int size = 0;
+            for (String value : values) {
+              if (value != null) {
+                size++;
+              }
+            }
+            return size;
+          }
+        };
+      }
+      return entrySet;
+    }
+
+    private int nextIndex(int from) {
+      while (from < values.length && values[from] == null) {
+        from++;
+      }
+      return from;
+    }
+  }
 }
@@ -19,18 +19,21 @@ class PageImpl<T> implements Page<T>, Serializable {
 
   private static final long serialVersionUID = 5304141347243843434L;
 
-  private final ImmutableList<T> content;
+  private final List<T> content;
   private final Pageable pageable;
   private final long total;
 
   PageImpl(List<? extends T> content) {
-    this(content, null, (null == content) ? 0 : content.size());
+    this(ImmutableList.copyOf(checkNotNull(content)), null, content.size());
   }
 
-  PageImpl(List<? extends T> content, Pageable pageable, long total) {
+  /**
+   * 直接使用content，不再复制，调用方需保证content不可修改
+   */
+  PageImpl(List<T> content, Pageable pageable, long total) {
     checkArgument(total >= 0, "The number of total elements must not be less than zero!");
 
-    this.content = ImmutableList.copyOf(checkNotNull(content));
+    this.content = checkNotNull(content);
     this.pageable = pageable;
     this.total = total;
   }
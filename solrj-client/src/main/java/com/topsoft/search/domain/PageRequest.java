@@ -6,7 +6,7 @@ import com.topsoft.search.domain.Sort.OrderBy;
 
 import java.io.Serializable;
 import java.util.Arrays;
-import java.util.LinkedList;
+import java.util.List;
 
 import static com.google.common.base.Preconditions.*;
 import static com.google.common.collect.Lists.*;
@@ -90,7 +90,8 @@ public class PageRequest implements Pageable, Serializable {
   public static final class Builder {
     private int page;
     private int size;
-    private LinkedList<OrderBy> orders;
+    private List<OrderBy> orders;
+    private Sort sort;
 
     public Builder() {
       this(DEFAULT_PAGE, DEFAULT_SIZE);
@@ -98,7 +99,7 @@ public class PageRequest implements Pageable, Serializable {
 
     public Builder(int page, int size) {
       page(page).size(size);
-      orders = newLinkedList();
+      orders = newArrayListWithCapacity(4);
     }
 
     public Builder page(int page) {
@@ -125,6 +126,14 @@ public class PageRequest implements Pageable, Serializable {
       return orderBy(Order.by(property, order));
     }
 
+    /**
+     * 直接使用已创建好的 {@link Sort}，例如 {@link Sort#intern()} 返回的共用实例，之后再添加的排序追加在其后
+     */
+    public Builder sort(Sort sort) {
+      this.sort = sort;
+      return this;
+    }
+
     public Builder orderBy(OrderBy order) {
       this.orders.add(checkNotNull(order, "OrderBy property must not be null!"));
 
@@ -150,7 +159,10 @@ public class PageRequest implements Pageable, Serializable {
     }
 
     public PageRequest build() {
-      return new PageRequest(page, size, orders.isEmpty() ? null : Sort.of(orders));
+      if (orders.isEmpty()) {
+        return new PageRequest(page, size, sort);
+      }
+      return new PageRequest(page, size, sort == null ? Sort.of(orders) : sort.concat(Sort.of(orders)));
     }
 
   }
@@ -1,5 +1,8 @@
 package com.topsoft.search.domain;
 
+import com.google.common.collect.ImmutableList;
+
+import javax.annotation.Nullable;
 import java.util.List;
 
 /**
@@ -16,12 +19,44 @@ public class Pages {
   }
 
   public static final <T> Page<T> of(List<? extends T> content, Pageable pageable, long total) {
-    return new PageImpl<T>(content, pageable, total);
+    return new PageImpl<T>(ImmutableList.<T>copyOf(content), pageable, total);
+  }
+
+  public static final <T> SearchAfterPage<T> of(List<? extends T> content, SearchAfterRequest pageRequest, long total,
+                                                @Nullable SearchAfterRequest nextPageRequest) {
+    return new SearchAfterPageImpl<T>(ImmutableList.<T>copyOf(content), pageRequest, total, nextPageRequest);
+  }
+
+  /**
+   * 与 {@link #of(List, Pageable, long)} 相同，content为 {@link UnmodifiableArrayList} 或 {@link ImmutableList} 时直接使用，不再复制
+   * <p>适用于刚刚转换得到的结果列表；其他列表(例如 {@link com.google.common.collect.Lists#transform} 视图)复制一次，
+   * 分页结果不会随原列表变化
+   */
+  public static final <T> Page<T> wrap(List<? extends T> content, Pageable pageable, long total) {
+    return new PageImpl<T>(unmodifiable(content), pageable, total);
+  }
+
+  /**
+   * 与 {@link #of(List, SearchAfterRequest, long, SearchAfterRequest)} 相同，
+   * content为 {@link UnmodifiableArrayList} 或 {@link ImmutableList} 时直接使用，不再复制
+   */
+  public static final <T> SearchAfterPage<T> wrap(List<? extends T> content, SearchAfterRequest pageRequest, long total,
+                                                  @Nullable SearchAfterRequest nextPageRequest) {
+    return new SearchAfterPageImpl<T>(unmodifiable(content), pageRequest, total, nextPageRequest);
   }
 
   public static final Pageable defaultPageable() {
     return DEFAULT_PAGEABLE;
   }
 
+  @SuppressWarnings("unchecked")
+  private static <T> List<T> unmodifiable(List<? extends T> content) {
+    if (content instanceof UnmodifiableArrayList || content instanceof ImmutableList) {
+      return (List<T>) content;
+    }
+    Object[] elements = content.toArray();
+    return UnmodifiableArrayList.wrap(elements, elements.length);
+  }
+
 
 }
@@ -0,0 +1,17 @@
+package com.topsoft.search.domain;
+
+/**
+ * 基于排序值深度分页的查询结果，携带查询下一页所需的 {@link SearchAfterRequest}
+ *
+ * @param <T> 当前页中的记录对象类型
+ * @author wangyg
+ */
+public interface SearchAfterPage<T> extends Page<T> {
+
+  /**
+   * 返回查询下一页的分页参数
+   *
+   * @return 下一页的分页参数，没有下一页时返回 {@code null}
+   */
+  SearchAfterRequest nextPageRequest();
+}
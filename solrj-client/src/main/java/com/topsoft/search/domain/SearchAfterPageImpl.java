@@ -0,0 +1,31 @@
+package com.topsoft.search.domain;
+
+import java.util.List;
+
+/**
+ * {@link SearchAfterPage}的默认实现,前台程序员不用关心。该对象是不可变的线程安全对象。
+ *
+ * @param <T>
+ * @author wangyg
+ */
+class SearchAfterPageImpl<T> extends PageImpl<T> implements SearchAfterPage<T> {
+
+  private static final long serialVersionUID = 8125374093184735208L;
+
+  private final SearchAfterRequest nextPageRequest;
+
+  SearchAfterPageImpl(List<T> content, SearchAfterRequest pageRequest, long total, SearchAfterRequest nextPageRequest) {
+    super(content, pageRequest, total);
+    this.nextPageRequest = nextPageRequest;
+  }
+
+  @Override
+  public SearchAfterRequest nextPageRequest() {
+    return nextPageRequest;
+  }
+
+  @Override
+  public boolean hasNextPage() {
+    return nextPageRequest != null;
+  }
+}
@@ -0,0 +1,139 @@
+package com.topsoft.search.domain;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableList;
+
+import java.io.Serializable;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.*;
+
+/**
+ * 基于排序值的深度分页参数(search after), 该对象是不可变的线程安全对象。
+ * <p>除第一页以外，每一页的参数都由上一页 {@link SearchAfterPage#nextPageRequest()} 生成，记录了上一页最后一条记录的排序值，
+ * 查询时将其转换为范围过滤条件而不是使用偏移量，因此查询第N页与查询第一页的开销相同，但只能逐页向后翻页。
+ *
+ * @author wangyg
+ * @see com.topsoft.search.support.SearchAfterSolrQueryProfile
+ */
+public class SearchAfterRequest implements Pageable, Serializable {
+
+  private static final long serialVersionUID = -2408581945067839231L;
+  /**
+   * 上一页最后一条记录没有某个排序字段的值时， {@link #getLastSortValues()} 中对应位置的值
+   */
+  public static final Object MISSING_VALUE = MissingValue.MISSING;
+
+  private final int page;
+  private final int size;
+  private final Sort sort;
+  private final ImmutableList<Object> lastSortValues;
+  private final long total;
+
+  private SearchAfterRequest(int page, int size, Sort sort, ImmutableList<Object> lastSortValues, long total) {
+    this.page = page;
+    this.size = size;
+    this.sort = sort;
+    this.lastSortValues = lastSortValues;
+    this.total = total;
+  }
+
+  /**
+   * 第一页的分页参数
+   *
+   * @param size 页面大小
+   * @param sort 排序参数，必须能唯一确定记录的顺序，未包含唯一键时查询会自动追加唯一键升序排序
+   */
+  public static SearchAfterRequest first(int size, Sort sort) {
+    checkArgument(size > 0, "size must greater than zero!");
+    checkNotNull(sort, "sort must not be null!");
+
+    return new SearchAfterRequest(1, size, sort, ImmutableList.of(), -1);
+  }
+
+  /**
+   * 生成下一页的分页参数
+   *
+   * @param lastSortValues 当前页最后一条记录的排序值，与实际使用的排序字段一一对应，没有值的字段使用 {@link #MISSING_VALUE}
+   * @param total          总记录数
+   * @return 下一页的分页参数
+   */
+  public SearchAfterRequest next(List<?> lastSortValues, long total) {
+    checkArgument(lastSortValues != null && !lastSortValues.isEmpty(), "lastSortValues must not be null or empty!");
+    checkArgument(total >= 0, "total must not be less than zero!");
+
+    return new SearchAfterRequest(page + 1, size, sort, ImmutableList.copyOf(lastSortValues), total);
+  }
+
+  /**
+   * @return 是否为第一页
+   */
+  public boolean isFirst() {
+    return lastSortValues.isEmpty();
+  }
+
+  /**
+   * @return 上一页最后一条记录的排序值，第一页为空列表
+   */
+  public List<Object> getLastSortValues() {
+    return lastSortValues;
+  }
+
+  /**
+   * @return 第一页查询得到的总记录数，第一页为-1
+   */
+  public long getTotal() {
+    return total;
+  }
+
+  @Override
+  public int getPageNumber() {
+    return page;
+  }
+
+  @Override
+  public int getPageSize() {
+    return size;
+  }
+
+  /**
+   * 仅用于显示，查询时不使用偏移量
+   */
+  @Override
+  public int getOffset() {
+    return (page - 1) * size;
+  }
+
+  @Override
+  public Sort getSort() {
+    return sort;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hashCode(page, size, sort, lastSortValues);
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj)
+      return true;
+    if (obj == null)
+      return false;
+    if (getClass() != obj.getClass())
+      return false;
+    SearchAfterRequest other = (SearchAfterRequest) obj;
+
+    return page == other.page && size == other.size && Objects.equal(sort, other.sort)
+        && Objects.equal(lastSortValues, other.lastSortValues);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("page:%d, size:%d, sort by:[%s], after:%s", page, size, sort, lastSortValues);
+  }
+
+  private static enum MissingValue {
+    MISSING
+  }
+}
@@ -6,6 +6,8 @@ import com.google.common.base.Objects;
 import com.google.common.base.Predicate;
 import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import com.google.common.collect.Iterables;
 import com.topsoft.search.domain.Sort.OrderBy;
 
@@ -14,7 +16,6 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
 
@@ -26,6 +27,8 @@ import static com.topsoft.search.domain.Sort.Order.asc;
  * 分页查询中的排序, 该对象是不可变的线程安全对象。
  * <p/>
  * 除了提供静态工厂方法构造以外，还提供builder模式的动态构建。
+ * <p/>
+ * 创建时即生成solr的 {@code sort} 参数字符串及hashCode，常用的排序可以通过 {@link #intern()} 共用同一个实例。
  *
  * @author wangyg
  * @see Sort#builder()
@@ -33,19 +36,51 @@ import static com.topsoft.search.domain.Sort.Order.asc;
 public class Sort implements Iterable<OrderBy>, Serializable {
 
   private static final long serialVersionUID = -3711118288266769269L;
+  private static final Interner<Sort> INTERNER = Interners.newWeakInterner();
+
   private final ImmutableList<OrderBy> orderBys;
+  // 由orderBys生成，不参与序列化，保持与之前版本相同的序列化格式
+  private final transient String sortString;
+  private final transient int hashCode;
 
   private Sort(List<OrderBy> orderBys) {
-    this.orderBys = ImmutableList.copyOf(orderBys);
+    this(ImmutableList.copyOf(orderBys));
   }
 
   private Sort(Order order, List<String> properties) {
-    com.google.common.collect.ImmutableList.Builder<OrderBy> builder = ImmutableList.builder();
+    this(orderBys(order, properties));
+  }
+
+  private Sort(ImmutableList<OrderBy> orderBys) {
+    this.orderBys = orderBys;
+    this.sortString = toSortString(orderBys);
+    this.hashCode = orderBys.hashCode();
+  }
+
+  /**
+   * 反序列化后重新生成 {@code sort} 参数字符串及hashCode
+   */
+  private Object readResolve() {
+    return new Sort(orderBys);
+  }
+
+  private static ImmutableList<OrderBy> orderBys(Order order, List<String> properties) {
+    ImmutableList.Builder<OrderBy> builder = ImmutableList.builder();
     for (String property : properties) {
       builder.add(Order.by(property, order));
     }
+    return builder.build();
+  }
 
-    this.orderBys = builder.build();
+  private static String toSortString(List<OrderBy> orderBys) {
+    StringBuilder builder = new StringBuilder();
+    for (OrderBy orderBy : orderBys) {
+      if (builder.length() > 0) {
+        builder.append(',');
+      }
+      builder.append(orderBy.getProperty()).append(' ').append(orderBy.getOrder().name());
+    }
+    return builder.toString();
   }
 
   public static Sort of(String p1, String o1) {
@@ -142,6 +177,20 @@ public class Sort implements Iterable<OrderBy>, Serializable {
     return new Builder();
   }
 
+  /**
+   * 返回与之相等的共用实例，适用于反复使用的常用排序
+   */
+  public Sort intern() {
+    return INTERNER.intern(this);
+  }
+
+  /**
+   * @return solr的 {@code sort} 参数，例如 {@code entNameLength asc,estDate desc}
+   */
+  public String getSortString() {
+    return sortString;
+  }
+
   public OrderBy find(final String property) {
     return Iterables.find(orderBys, new Predicate<OrderBy>() {
 
@@ -177,7 +226,7 @@ public class Sort implements Iterable<OrderBy>, Serializable {
 
   @Override
   public int hashCode() {
-    return Objects.hashCode(orderBys);
+    return hashCode;
   }
 
   @Override
@@ -190,7 +239,7 @@ public class Sort implements Iterable<OrderBy>, Serializable {
       return false;
     Sort other = (Sort) obj;
 
-    return Objects.equal(orderBys, other.orderBys);
+    return hashCode == other.hashCode && sortString.equals(other.sortString);
   }
 
   @Override
@@ -225,10 +274,10 @@ public class Sort implements Iterable<OrderBy>, Serializable {
   }
 
   public static class Builder {
-    private LinkedList<OrderBy> orderBys;
+    private final List<OrderBy> orderBys;
 
     public Builder() {
-      orderBys = newLinkedList();
+      orderBys = newArrayListWithCapacity(4);
     }
 
     public Sort build() {
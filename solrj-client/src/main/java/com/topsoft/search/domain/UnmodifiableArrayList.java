@@ -0,0 +1,54 @@
+package com.topsoft.search.domain;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+import static com.google.common.base.Preconditions.*;
+
+/**
+ * <p>接管一个数组的只读列表，不复制数组，元素可以为 {@code null}
+ * <p>用于刚刚转换得到的查询结果，{@link Pages#wrap(java.util.List, Pageable, long)} 直接使用而不再复制；
+ * 调用 {@link #wrap(Object[], int)} 后不能再修改该数组。
+ *
+ * @author wangyg
+ */
+public final class UnmodifiableArrayList<E> extends AbstractList<E> implements RandomAccess, Serializable {
+  private static final long serialVersionUID = -2204163412364785731L;
+
+  private final Object[] elements;
+  private final int size;
+
+  private UnmodifiableArrayList(Object[] elements, int size) {
+    this.elements = elements;
+    this.size = size;
+  }
+
+  /**
+   * @param elements 由列表接管的数组
+   * @param size     数组中前size个元素为列表的内容
+   */
+  public static <E> UnmodifiableArrayList<E> wrap(Object[] elements, int size) {
+    checkNotNull(elements, "elements must not be null!");
+    checkPositionIndex(size, elements.length, "size");
+    return new UnmodifiableArrayList<E>(elements, size);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public E get(int index) {
+    checkElementIndex(index, size);
+    return (E) elements[index];
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public Object[] toArray() {
+    return Arrays.copyOf(elements, size);
+  }
+}
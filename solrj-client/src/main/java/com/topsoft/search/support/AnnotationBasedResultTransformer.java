@@ -11,15 +11,15 @@ import static com.google.common.base.Preconditions.*;
  * @author wangyg
  */
 public class AnnotationBasedResultTransformer<E> implements ResultTransformer<List<E>> {
-  private final Class<E> annotatedClass;
+  private final DocumentBinder<E> binder;
 
   public AnnotationBasedResultTransformer(Class<E> annotatedClass) {
     checkNotNull(annotatedClass, "annotatedClass can not be null!");
-    this.annotatedClass = annotatedClass;
+    this.binder = DocumentBinders.forClass(annotatedClass);
   }
 
   @Override
   public List<E> transform(QueryResponse response) {
-    return response.getBeans(annotatedClass);
+    return binder.bindAll(response.getResults());
   }
 }
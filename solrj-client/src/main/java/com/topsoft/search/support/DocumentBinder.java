@@ -0,0 +1,45 @@
+package com.topsoft.search.support;
+
+import com.google.common.base.Function;
+import org.apache.solr.common.SolrDocument;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 将 {@link SolrDocument} 转换为使用 {@link org.apache.solr.client.solrj.beans.Field} 标注的对象，由 {@link DocumentBinders} 创建
+ *
+ * @param <T> 转换后的对象类型
+ * @author wangyg
+ * @see DocumentBinders#forClass(Class)
+ */
+public abstract class DocumentBinder<T> implements Function<SolrDocument, T> {
+
+  /**
+   * 将单个文档转换为对象
+   *
+   * @param doc solr文档
+   * @return 转换后的对象
+   */
+  public abstract T bind(SolrDocument doc);
+
+  /**
+   * 将多个文档转换为对象
+   *
+   * @param docs solr文档列表
+   * @return 转换后的对象列表
+   */
+  public List<T> bindAll(List<SolrDocument> docs) {
+    List<T> beans = new ArrayList<T>(docs.size());
+    for (SolrDocument doc : docs) {
+      beans.add(bind(doc));
+    }
+    return beans;
+  }
+
+  @Override
+  public T apply(@Nullable SolrDocument input) {
+    return bind(input);
+  }
+}
@@ -0,0 +1,80 @@
+package com.topsoft.search.support;
+
+import com.google.common.base.Joiner;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableSet;
+import com.topsoft.search.QueryPreProcessor;
+import com.topsoft.search.annotations.Annotations;
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.common.params.CommonParams;
+
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.*;
+
+/**
+ * <p>设置 {@code fl} 参数，只返回转换结果需要的字段
+ * <p>未设置 {@code fl} 时solr会返回所有存储字段，服务端需要解压全部存储字段，传输的数据量也更大。
+ * 字段可以由使用annotation标注的类自动得到(见 {@link Annotations#getFieldNames(Class)})，也可以由使用
+ * {@link com.google.common.base.Function} 进行转换的调用方直接声明。
+ * <p>查询已经设置了 {@code fl} 时只追加缺少的字段；字段为空时不做任何设置。
+ *
+ * @author wangyg
+ */
+public class FieldListQueryPreProcessor implements QueryPreProcessor {
+  private static final Joiner COMMA_JOINER = Joiner.on(',');
+
+  private static final LoadingCache<Class, FieldListQueryPreProcessor> cache = CacheBuilder.newBuilder()
+      .build(new CacheLoader<Class, FieldListQueryPreProcessor>() {
+        @Override
+        public FieldListQueryPreProcessor load(Class key) throws Exception {
+          return new FieldListQueryPreProcessor(Annotations.getFieldNames(key));
+        }
+      });
+
+  private final Set<String> fields;
+  private final String fieldList;
+
+  public FieldListQueryPreProcessor(String... fields) {
+    this(ImmutableSet.copyOf(fields));
+  }
+
+  public FieldListQueryPreProcessor(Iterable<String> fields) {
+    this.fields = ImmutableSet.copyOf(checkNotNull(fields, "fields must not be null!"));
+    this.fieldList = COMMA_JOINER.join(this.fields);
+  }
+
+  /**
+   * 返回指定类对应的 {@link FieldListQueryPreProcessor}，同一个类只会解析一次
+   *
+   * @param annotatedClass 使用 {@link org.apache.solr.client.solrj.beans.Field} 标注的类
+   */
+  public static FieldListQueryPreProcessor forClass(Class<?> annotatedClass) {
+    checkNotNull(annotatedClass, "annotatedClass must not be null!");
+    return cache.getUnchecked(annotatedClass);
+  }
+
+  public Set<String> getFields() {
+    return fields;
+  }
+
+  @Override
+  public void prepare(SolrQuery query) {
+    if (fields.isEmpty()) {
+      return;
+    }
+
+    if (query.get(CommonParams.FL) == null) {
+      query.set(CommonParams.FL, fieldList);
+    } else {
+      QueryFields.ensureReturned(query, fields);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "fl=" + fieldList;
+  }
+}
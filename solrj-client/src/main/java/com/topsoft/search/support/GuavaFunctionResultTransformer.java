@@ -1,7 +1,6 @@
 package com.topsoft.search.support;
 
 import com.google.common.base.Function;
-import com.google.common.collect.Lists;
 import com.topsoft.search.ResultTransformer;
 import org.apache.solr.client.solrj.response.QueryResponse;
 import org.apache.solr.common.SolrDocument;
@@ -15,14 +14,24 @@ import static com.google.common.base.Preconditions.*;
  */
 public class GuavaFunctionResultTransformer<E> implements ResultTransformer<List<E>> {
   private final Function<SolrDocument, ? extends E> delegate;
+  private final boolean lazy;
 
   public GuavaFunctionResultTransformer(Function<SolrDocument, ? extends E> delegate) {
+    this(delegate, false);
+  }
+
+  /**
+   * @param delegate 转换函数
+   * @param lazy     是否返回延迟转换的视图，默认一次性转换每个文档
+   */
+  public GuavaFunctionResultTransformer(Function<SolrDocument, ? extends E> delegate, boolean lazy) {
     checkNotNull(delegate, "function delegate can not be null!");
     this.delegate = delegate;
+    this.lazy = lazy;
   }
 
   @Override
   public List<E> transform(QueryResponse response) {
-    return Lists.transform(response.getResults(), delegate);
+    return ResultLists.transform(response.getResults(), delegate, lazy);
   }
 }
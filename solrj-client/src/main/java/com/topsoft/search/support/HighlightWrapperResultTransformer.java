@@ -1,15 +1,20 @@
 package com.topsoft.search.support;
 
 import com.google.common.base.Function;
-import com.google.common.collect.Lists;
+import com.google.common.base.Functions;
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableSet;
 import com.topsoft.search.ResultTransformer;
 import com.topsoft.search.annotations.Annotations;
 import com.topsoft.search.annotations.DocumentId;
+import com.topsoft.search.annotations.DocumentMetadata;
+import com.topsoft.search.domain.HighlightFields;
 import com.topsoft.search.domain.HighlightWrapper;
-import org.apache.solr.client.solrj.beans.DocumentObjectBinder;
+import com.topsoft.search.domain.UnmodifiableArrayList;
 import org.apache.solr.client.solrj.response.QueryResponse;
 import org.apache.solr.common.SolrDocument;
 import org.apache.solr.common.SolrDocumentList;
+import org.apache.solr.common.util.NamedList;
 
 import javax.annotation.Nullable;
 import java.util.List;
@@ -18,65 +23,173 @@ import java.util.Map;
 import static com.google.common.base.Preconditions.*;
 
 /**
+ * <p>将查询结果转换为 {@link HighlightWrapper}
+ * <p>solr返回的高亮信息与文档列表顺序一致，默认只遍历一次响应，按位置为每个文档取得高亮信息(顺序不一致时按id查找)，
+ * 每个字段的高亮片段只合并一次。指定了 {@link HighlightFields} 时所有结果共用该字段集合，可按下标读取；
+ * 未指定时(包括按类构造时)使用响应中出现的所有高亮字段；需要按 {@link com.topsoft.search.annotations.Highlight}
+ * 标注的字段读取时，可将 {@link DocumentMetadata#getHighlightFields()} 显式传入。
+ *
  * @author wangyg
  */
 public class HighlightWrapperResultTransformer<T> implements ResultTransformer<List<HighlightWrapper<T>>> {
-  private final Class<T> annotatedClass;
+  private static final String HIGHLIGHTING = "highlighting";
+  private static final Joiner COMMA_JOINER = Joiner.on(", ").skipNulls();
+
   private final Function<SolrDocument, T> transformer;
   private final String idName;
+  private final HighlightFields fields;
+  private final boolean lazy;
 
   public HighlightWrapperResultTransformer(Class<T> annotatedClass) {
-    this.annotatedClass = checkNotNull(annotatedClass, "annotatedClass can not be null!");
-    this.transformer = null;
-    this.idName = null;
+    this(annotatedClass, false);
+  }
+
+  /**
+   * @param annotatedClass 使用 {@link org.apache.solr.client.solrj.beans.Field} 标注的类
+   * @param lazy           是否返回延迟转换的视图，默认一次性转换每个文档
+   */
+  public HighlightWrapperResultTransformer(Class<T> annotatedClass, boolean lazy) {
+    checkNotNull(annotatedClass, "annotatedClass can not be null!");
+    DocumentMetadata metadata = Annotations.getMetadata(annotatedClass);
+    this.idName = metadata.getDocumentIdName();
+    checkState(idName != null, "Annotation[@%s] has not found in %s!",
+        DocumentId.class.getName(), annotatedClass.getName());
+    this.transformer = DocumentBinders.forClass(annotatedClass);
+    this.fields = null;
+    this.lazy = lazy;
   }
 
   public HighlightWrapperResultTransformer(String idName, Function<SolrDocument, T> transformer) {
+    this(idName, transformer, null, false);
+  }
+
+  /**
+   * @param idName      唯一键字段名
+   * @param transformer 转换函数
+   * @param lazy        是否返回延迟转换的视图，默认一次性转换每个文档
+   */
+  public HighlightWrapperResultTransformer(String idName, Function<SolrDocument, T> transformer, boolean lazy) {
+    this(idName, transformer, null, lazy);
+  }
+
+  /**
+   * @param idName      唯一键字段名
+   * @param transformer 转换函数
+   * @param fields      高亮字段集合，所有结果共用，可以为 {@code null}
+   * @param lazy        是否返回延迟转换的视图，默认一次性转换每个文档
+   */
+  public HighlightWrapperResultTransformer(String idName, Function<SolrDocument, T> transformer,
+                                           @Nullable HighlightFields fields, boolean lazy) {
     this.idName = checkNotNull(idName, "idName can not be null!");
     this.transformer = checkNotNull(transformer, "transformer can not be null!");
-    this.annotatedClass = null;
+    this.fields = fields;
+    this.lazy = lazy;
   }
 
   @Override
   public List<HighlightWrapper<T>> transform(QueryResponse response) {
+    return transform(response, Functions.<HighlightWrapper<T>>identity());
+  }
+
+  /**
+   * 返回在同一次遍历中继续使用function转换每个 {@link HighlightWrapper} 的 {@link ResultTransformer}，
+   * 例如将高亮内容写回对象，不再生成中间的 {@link HighlightWrapper} 列表
+   *
+   * @param function 转换每个 {@link HighlightWrapper} 的函数
+   * @param <R>      最终的结果类型
+   */
+  public <R> ResultTransformer<List<R>> andThen(final Function<? super HighlightWrapper<T>, ? extends R> function) {
+    checkNotNull(function, "function can not be null!");
+    return new ResultTransformer<List<R>>() {
+      @Override
+      public List<R> transform(QueryResponse response) {
+        return HighlightWrapperResultTransformer.this.transform(response, function);
+      }
+    };
+  }
+
+  @SuppressWarnings("unchecked")
+  private <R> List<R> transform(QueryResponse response, Function<? super HighlightWrapper<T>, ? extends R> function) {
     final SolrDocumentList docs = response.getResults();
-    final Map<String, Map<String, List<String>>> highlighting = response.getHighlighting();
 
-    HighlightWrapperFunction<T> wrapper = annotatedClass != null ?
-        new HighlightWrapperFunction<T>(annotatedClass, highlighting) :
-        new HighlightWrapperFunction<T>(idName, transformer, highlighting);
+    if (lazy) {
+      HighlightWrapperFunction<T> wrapper = new HighlightWrapperFunction<T>(idName, transformer, response.getHighlighting());
+      return ResultLists.transform(docs, Functions.compose(function, wrapper), true);
+    }
+
+    NamedList<Object> highlighting = (NamedList<Object>) response.getResponse().get(HIGHLIGHTING);
+    HighlightFields fields = this.fields != null ? this.fields : collectFields(highlighting);
+
+    Object[] results = new Object[docs.size()];
+    for (int i = 0; i < results.length; i++) {
+      SolrDocument doc = docs.get(i);
+      NamedList<Object> docHighlighting = highlighting == null ? null : findDocHighlighting(highlighting, i, doc);
+      results[i] = function.apply(new HighlightWrapper<T>(transformer.apply(doc), fields, joinSnippets(fields, docHighlighting)));
+    }
+    return UnmodifiableArrayList.wrap(results, results.length);
+  }
+
+  /**
+   * 先按位置查找，id不一致时再按id查找
+   */
+  @SuppressWarnings("unchecked")
+  private NamedList<Object> findDocHighlighting(NamedList<Object> highlighting, int index, SolrDocument doc) {
+    Object idValue = doc.getFieldValue(idName);
+    String id = idValue instanceof String ? (String) idValue : String.valueOf(idValue);
+    if (index < highlighting.size() && id.equals(highlighting.getName(index))) {
+      return (NamedList<Object>) highlighting.getVal(index);
+    }
+    return (NamedList<Object>) highlighting.get(id);
+  }
+
+  private static String[] joinSnippets(HighlightFields fields, @Nullable NamedList<Object> docHighlighting) {
+    String[] values = new String[fields.size()];
+    if (docHighlighting == null) {
+      return values;
+    }
 
-    return Lists.transform(docs, wrapper);
+    for (int i = 0; i < docHighlighting.size(); i++) {
+      int index = fields.indexOf(docHighlighting.getName(i));
+      Object snippets = docHighlighting.getVal(i);
+      if (index >= 0 && snippets != null) {
+        values[index] = snippets instanceof Object[] ? COMMA_JOINER.join((Object[]) snippets) : COMMA_JOINER.join((Iterable<?>) snippets);
+      }
+    }
+    return values;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static HighlightFields collectFields(@Nullable NamedList<Object> highlighting) {
+    if (highlighting == null) {
+      return HighlightFields.EMPTY;
+    }
+
+    ImmutableSet.Builder<String> names = ImmutableSet.builder();
+    for (int i = 0; i < highlighting.size(); i++) {
+      NamedList<Object> docHighlighting = (NamedList<Object>) highlighting.getVal(i);
+      for (int j = 0; docHighlighting != null && j < docHighlighting.size(); j++) {
+        names.add(docHighlighting.getName(j));
+      }
+    }
+    return HighlightFields.of(names.build());
   }
 
   private static class HighlightWrapperFunction<T> implements Function<SolrDocument, HighlightWrapper<T>> {
-    private static final DocumentObjectBinder BINDER = new DocumentObjectBinder();
-    private final Class<T> annotatedClass;
     private final Function<SolrDocument, T> transformer;
     private final String idName;
     private final Map<String, Map<String, List<String>>> highlighting;
 
-    public HighlightWrapperFunction(Class<T> annotatedClass, Map<String, Map<String, List<String>>> highlighting) {
-      this.annotatedClass = annotatedClass;
-      this.idName = Annotations.getDocumentIdName(annotatedClass);
-      checkState(idName != null, "Annotation[@%s] has not found in %s!",
-          DocumentId.class.getName(), annotatedClass.getName());
-      this.highlighting = checkNotNull(highlighting);
-      this.transformer = null;
-    }
-
     public HighlightWrapperFunction(String idName, Function<SolrDocument, T> transformer, Map<String, Map<String, List<String>>> highlighting) {
       this.idName = idName;
       this.transformer = transformer;
       this.highlighting = checkNotNull(highlighting);
-      this.annotatedClass = null;
     }
 
     @Nullable
     @Override
     public HighlightWrapper<T> apply(@Nullable SolrDocument doc) {
       String idValue = String.valueOf(doc.getFieldValue(idName));
-      T bean = annotatedClass != null ? BINDER.getBean(annotatedClass, doc) : transformer.apply(doc);
+      T bean = transformer.apply(doc);
       return new HighlightWrapper<T>(bean, highlighting.get(idValue));
     }
   }
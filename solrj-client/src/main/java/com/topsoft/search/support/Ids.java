@@ -3,10 +3,14 @@ package com.topsoft.search.support;
 import com.google.common.base.Function;
 import com.google.common.base.Strings;
 import com.google.common.collect.Iterables;
+import com.topsoft.search.QueryPreProcessor;
+import org.apache.solr.client.solrj.StreamingResponseCallback;
 import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
 
 import javax.annotation.Nullable;
 import java.io.Serializable;
+import java.util.List;
 
 import static com.google.common.base.Preconditions.*;
 
@@ -17,6 +21,8 @@ public class Ids {
   public static final String DEFAULT_ID_NAME = "id";
   // ID类型选用Long最为普遍，为效率优化故，选作默认
   public static final Function<SolrDocument, Long> GET = new ExtractFieldFunction<Long>(DEFAULT_ID_NAME);
+  // 只返回id字段
+  public static final QueryPreProcessor ID_ONLY = new FieldListQueryPreProcessor(DEFAULT_ID_NAME);
 
   private Ids() {
   }
@@ -33,6 +39,70 @@ public class Ids {
     return Iterables.transform(docs, new ExtractFieldFunction<ID>(idName));
   }
 
+  /**
+   * 将文档的long类型id依次读入 {@link LongList}，不装箱
+   */
+  public static LongList toLongList(List<SolrDocument> docs) {
+    return toLongList(docs, DEFAULT_ID_NAME);
+  }
+
+  public static LongList toLongList(List<SolrDocument> docs, String idName) {
+    LongList ids = new LongList(docs.size());
+    for (SolrDocument doc : docs) {
+      ids.add(longValue(doc, idName));
+    }
+    return ids;
+  }
+
+  /**
+   * 返回将流式查询的long类型id直接读入 {@link LongList} 的回调对象，文档读取后即可被回收，应与 {@link #ID_ONLY} 一起使用
+   */
+  public static LongIdCollector collector() {
+    return new LongIdCollector(DEFAULT_ID_NAME);
+  }
+
+  public static LongIdCollector collector(String idName) {
+    return new LongIdCollector(idName);
+  }
+
+  private static long longValue(SolrDocument doc, String idName) {
+    Object value = doc.getFieldValue(idName);
+    checkState(value != null, "The id field '%s' is missing in document %s!", idName, doc);
+    return value instanceof Number ? ((Number) value).longValue() : Long.parseLong(value.toString());
+  }
+
+  /**
+   * 收集流式查询结果中long类型id的回调对象，非线程安全，每次查询使用一个新的实例
+   */
+  public static class LongIdCollector extends StreamingResponseCallback {
+    // 按numFound预分配，但不超过此上限
+    private static final int MAX_INITIAL_CAPACITY = 65536;
+
+    private final String idName;
+    private LongList ids = new LongList();
+
+    LongIdCollector(String idName) {
+      checkArgument(!Strings.isNullOrEmpty(idName), "idName must not be null or empty!");
+      this.idName = idName;
+    }
+
+    @Override
+    public void streamSolrDocument(SolrDocument doc) {
+      ids.add(longValue(doc, idName));
+    }
+
+    @Override
+    public void streamDocListInfo(long numFound, long start, Float maxScore) {
+      if (ids.isEmpty()) {
+        ids = new LongList((int) Math.min(numFound, MAX_INITIAL_CAPACITY));
+      }
+    }
+
+    public LongList getIds() {
+      return ids;
+    }
+  }
+
   private static class ExtractFieldFunction<T> implements Function<SolrDocument, T> {
     private final String fieldName;
 
@@ -0,0 +1,20 @@
+package com.topsoft.search.support;
+
+import java.util.NoSuchElementException;
+
+/**
+ * 不装箱的long迭代器
+ *
+ * @author wangyg
+ * @see LongList
+ * @see LongSet
+ */
+public interface LongIterator {
+
+  boolean hasNext();
+
+  /**
+   * @throws NoSuchElementException 没有更多元素时
+   */
+  long next();
+}
@@ -0,0 +1,118 @@
+package com.topsoft.search.support;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import static com.google.common.base.Preconditions.*;
+
+/**
+ * <p>以 {@code long[]} 存储的可增长列表，添加和读取都不会装箱
+ * <p>非线程安全
+ *
+ * @author wangyg
+ */
+public class LongList {
+  private static final int DEFAULT_CAPACITY = 16;
+
+  private long[] elements;
+  private int size;
+
+  public LongList() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  public LongList(int initialCapacity) {
+    checkArgument(initialCapacity >= 0, "initialCapacity must not be negative!");
+    this.elements = new long[initialCapacity];
+  }
+
+  public void add(long value) {
+    if (size == elements.length) {
+      elements = Arrays.copyOf(elements, Math.max(DEFAULT_CAPACITY, size + (size >> 1)));
+    }
+    elements[size++] = value;
+  }
+
+  public long get(int index) {
+    checkElementIndex(index, size);
+    return elements[index];
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * 顺序查找，需要多次查找时请使用 {@link LongSet#copyOf(LongList)}
+   */
+  public boolean contains(long value) {
+    for (int i = 0; i < size; i++) {
+      if (elements[i] == value) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  public LongIterator iterator() {
+    return new LongIterator() {
+      private int index;
+
+      @Override
+      public boolean hasNext() {
+        return index < size;
+      }
+
+      @Override
+      public long next() {
+        if (index >= size) {
+          throw new NoSuchElementException();
+        }
+        return elements[index++];
+      }
+    };
+  }
+
+  public long[] toArray() {
+    return Arrays.copyOf(elements, size);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (!(o instanceof LongList)) return false;
+
+    LongList that = (LongList) o;
+    if (size != that.size) return false;
+    for (int i = 0; i < size; i++) {
+      if (elements[i] != that.elements[i]) return false;
+    }
+    return true;
+  }
+
+  @Override
+  public int hashCode() {
+    int result = 1;
+    for (int i = 0; i < size; i++) {
+      long element = elements[i];
+      result = 31 * result + (int) (element ^ (element >>> 32));
+    }
+    return result;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder(size * 8 + 2).append('[');
+    for (int i = 0; i < size; i++) {
+      if (i > 0) {
+        builder.append(", ");
+      }
+      builder.append(elements[i]);
+    }
+    return builder.append(']').toString();
+  }
+}
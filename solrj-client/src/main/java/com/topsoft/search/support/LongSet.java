@@ -0,0 +1,170 @@
+package com.topsoft.search.support;
+
+import java.util.NoSuchElementException;
+
+import static com.google.common.base.Preconditions.*;
+
+/**
+ * <p>以 {@code long[]} 开放寻址(线性探测)实现的集合，添加和查找都不会装箱
+ * <p>0作为空槽标记，是否包含0单独记录；非线程安全
+ *
+ * @author wangyg
+ */
+public class LongSet {
+  private static final int MIN_CAPACITY = 16;
+
+  private long[] table;
+  private int mask;
+  private int size;
+  private boolean containsZero;
+
+  public LongSet() {
+    this(MIN_CAPACITY / 2);
+  }
+
+  public LongSet(int expectedSize) {
+    checkArgument(expectedSize >= 0, "expectedSize must not be negative!");
+    allocate(tableSizeFor(expectedSize));
+  }
+
+  public static LongSet copyOf(LongList values) {
+    LongSet set = new LongSet(values.size());
+    for (int i = 0, n = values.size(); i < n; i++) {
+      set.add(values.get(i));
+    }
+    return set;
+  }
+
+  /**
+   * @return 集合中原先不存在该值时返回 {@code true}
+   */
+  public boolean add(long value) {
+    if (value == 0) {
+      if (containsZero) {
+        return false;
+      }
+      containsZero = true;
+      size++;
+      return true;
+    }
+
+    int index = indexOf(table, mask, value);
+    if (table[index] == value) {
+      return false;
+    }
+
+    table[index] = value;
+    if (++size * 2 > table.length) {
+      rehash();
+    }
+    return true;
+  }
+
+  public boolean contains(long value) {
+    if (value == 0) {
+      return containsZero;
+    }
+    return table[indexOf(table, mask, value)] == value;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * 按内部存储顺序迭代，不保证顺序
+   */
+  public LongIterator iterator() {
+    return new LongIterator() {
+      private boolean zeroPending = containsZero;
+      private int index = nextSlot(0);
+
+      @Override
+      public boolean hasNext() {
+        return zeroPending || index < table.length;
+      }
+
+      @Override
+      public long next() {
+        if (zeroPending) {
+          zeroPending = false;
+          return 0;
+        }
+        if (index >= table.length) {
+          throw new NoSuchElementException();
+        }
+        long value = table[index];
+        index = nextSlot(index + 1);
+        return value;
+      }
+    };
+  }
+
+  public long[] toArray() {
+    long[] values = new long[size];
+    int i = 0;
+    for (LongIterator iterator = iterator(); iterator.hasNext(); ) {
+      values[i++] = iterator.next();
+    }
+    return values;
+  }
+
+  private int nextSlot(int from) {
+    while (from < table.length && table[from] == 0) {
+      from++;
+    }
+    return from;
+  }
+
+  private void rehash() {
+    long[] old = table;
+    allocate(old.length * 2);
+    for (long value : old) {
+      if (value != 0) {
+        table[indexOf(table, mask, value)] = value;
+      }
+    }
+  }
+
+  private void allocate(int capacity) {
+    table = new long[capacity];
+    mask = capacity - 1;
+  }
+
+  private static int indexOf(long[] table, int mask, long value) {
+    int index = hash(value) & mask;
+    while (table[index] != 0 && table[index] != value) {
+      index = (index + 1) & mask;
+    }
+    return index;
+  }
+
+  private static int hash(long value) {
+    long h = value * 0x9E3779B97F4A7C15L;
+    return (int) (h ^ (h >>> 32));
+  }
+
+  private static int tableSizeFor(int expectedSize) {
+    int capacity = MIN_CAPACITY;
+    while (capacity < expectedSize * 2) {
+      capacity <<= 1;
+    }
+    return capacity;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder(size * 8 + 2).append('[');
+    for (LongIterator iterator = iterator(); iterator.hasNext(); ) {
+      builder.append(iterator.next());
+      if (iterator.hasNext()) {
+        builder.append(", ");
+      }
+    }
+    return builder.append(']').toString();
+  }
+}
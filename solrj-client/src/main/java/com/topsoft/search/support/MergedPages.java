@@ -0,0 +1,128 @@
+package com.topsoft.search.support;
+
+import com.google.common.base.Function;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.PeekingIterator;
+import com.topsoft.search.QueryPreProcessor;
+import com.topsoft.search.domain.Page;
+import com.topsoft.search.domain.Pageable;
+import com.topsoft.search.domain.Pages;
+import com.topsoft.search.domain.Sort;
+import com.topsoft.search.domain.UnmodifiableArrayList;
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import static com.google.common.base.Preconditions.*;
+
+/**
+ * <p>将多个core的查询结果合并为一个全局排序的分页
+ * <p>每个core只查询前 {@code offset + size} 条记录，再按 {@link Pageable#getSort()} 对各core已排好序的结果进行多路归并，
+ * 堆中最多只有core数量个元素，只有最终选中的记录才会被转换；总记录数为各core的 {@code numFound} 之和。
+ * <p>未指定排序时按相关度(score)降序合并，此时不同core的score是分别计算的，只能近似比较。
+ *
+ * @author wangyg
+ */
+public class MergedPages {
+  public static final String SCORE_FIELD = "score";
+  private static final Sort SCORE_SORT = Sort.of(SCORE_FIELD, Sort.Order.desc);
+
+  /**
+   * Cannot instantiate
+   */
+  private MergedPages() {
+  }
+
+  /**
+   * 返回每个core查询所使用的 {@link QueryPreProcessor}
+   *
+   * @param pageRequest 合并后的分页信息
+   */
+  public static QueryPreProcessor preProcessor(final Pageable pageRequest) {
+    checkNotNull(pageRequest, "pageRequest must not be null!");
+
+    return new QueryPreProcessor() {
+      @Override
+      public void prepare(SolrQuery query) {
+        query.setStart(0);
+        query.setRows(pageRequest.getOffset() + pageRequest.getPageSize());
+
+        Sort sort = pageRequest.getSort();
+        if (sort == null) {
+          query.setIncludeScore(true);
+          sort = SCORE_SORT;
+        }
+
+        List<String> sortFields = new ArrayList<String>();
+        for (Sort.OrderBy orderBy : sort) {
+          query.addSort(orderBy.getProperty(), orderBy.isAscending() ? SolrQuery.ORDER.asc : SolrQuery.ORDER.desc);
+          sortFields.add(orderBy.getProperty());
+        }
+        QueryFields.ensureReturned(query, sortFields);
+      }
+    };
+  }
+
+  /**
+   * 归并各core的查询结果
+   *
+   * @param results     各core使用 {@link #preProcessor(Pageable)} 查询得到的结果
+   * @param pageRequest 合并后的分页信息
+   * @param function    用于将选中的 {@link SolrDocument} 对象转换为 <T> 对象的函数
+   * @param <T>         用于封装查询结果的数据结构
+   * @return 全局排序后的一页结果
+   */
+  public static <T> Page<T> merge(Collection<? extends List<SolrDocument>> results, Pageable pageRequest,
+                                  Function<SolrDocument, ? extends T> function) {
+    checkNotNull(results, "results must not be null!");
+    checkNotNull(pageRequest, "pageRequest must not be null!");
+    checkNotNull(function, "function must not be null!");
+
+    Sort sort = pageRequest.getSort();
+    final Comparator<SolrDocument> comparator = new SolrDocumentComparator(sort == null ? SCORE_SORT : sort);
+
+    PriorityQueue<PeekingIterator<SolrDocument>> heap = new PriorityQueue<PeekingIterator<SolrDocument>>(
+        Math.max(results.size(), 1), new Comparator<PeekingIterator<SolrDocument>>() {
+      @Override
+      public int compare(PeekingIterator<SolrDocument> it1, PeekingIterator<SolrDocument> it2) {
+        return comparator.compare(it1.peek(), it2.peek());
+      }
+    });
+
+    long total = 0;
+    int available = 0;
+    for (List<SolrDocument> docs : results) {
+      total += docs instanceof SolrDocumentList ? ((SolrDocumentList) docs).getNumFound() : docs.size();
+      available += docs.size();
+      if (!docs.isEmpty()) {
+        heap.add(Iterators.peekingIterator(docs.iterator()));
+      }
+    }
+
+    int skip = pageRequest.getOffset();
+    // 选中的记录直接放入大小恰好的数组，由分页结果接管
+    Object[] content = new Object[Math.max(0, Math.min(pageRequest.getPageSize(), available - skip))];
+    int size = 0;
+    while (!heap.isEmpty() && size < content.length) {
+      PeekingIterator<SolrDocument> head = heap.poll();
+      SolrDocument doc = head.next();
+      if (skip > 0) {
+        skip--;
+      } else {
+        content[size++] = function.apply(doc);
+      }
+
+      if (head.hasNext()) {
+        heap.add(head);
+      }
+    }
+
+    return Pages.wrap(UnmodifiableArrayList.<T>wrap(content, size), pageRequest, total);
+  }
+}
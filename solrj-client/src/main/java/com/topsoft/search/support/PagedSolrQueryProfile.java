@@ -11,6 +11,7 @@ import com.topsoft.search.domain.Sort;
 import org.apache.solr.client.solrj.SolrQuery;
 import org.apache.solr.client.solrj.response.QueryResponse;
 import org.apache.solr.common.SolrDocumentList;
+import org.apache.solr.common.params.CommonParams;
 
 import java.util.List;
 
@@ -43,7 +44,9 @@ public class PagedSolrQueryProfile<T> extends SolrQueryProfileDecorator<List<T>,
 
     Sort sort = pageRequest.getSort();
 
-    if (sort != null) {
+    if (sort != null && query.get(CommonParams.SORT) == null) {
+      query.set(CommonParams.SORT, sort.getSortString());
+    } else if (sort != null) {
       for (Sort.OrderBy orderBy : sort) {
         query.addSort(orderBy.getProperty(), orderBy.isAscending() ? SolrQuery.ORDER.asc : SolrQuery.ORDER.desc);
       }
@@ -53,7 +56,7 @@ public class PagedSolrQueryProfile<T> extends SolrQueryProfileDecorator<List<T>,
   @Override
   protected Page<T> selfTransform(QueryResponse response, List<T> prevResults) {
     SolrDocumentList docs = response.getResults();
-    return Pages.of(prevResults, pageRequest, docs.getNumFound());
+    return Pages.wrap(prevResults, pageRequest, docs.getNumFound());
   }
 
 }
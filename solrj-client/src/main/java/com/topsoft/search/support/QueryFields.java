@@ -0,0 +1,42 @@
+package com.topsoft.search.support;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.Sets;
+import org.apache.solr.client.solrj.SolrQuery;
+
+import java.util.Set;
+
+/**
+ * 处理 {@code fl} 参数的工具类
+ *
+ * @author wangyg
+ */
+class QueryFields {
+
+  /**
+   * Cannot instantiate
+   */
+  private QueryFields() {
+  }
+
+  /**
+   * 已经设置了 {@code fl} 参数时，将其中缺少的字段追加到 {@code fl}，以保证这些字段会被返回；未设置时solr返回所有字段，无须处理
+   */
+  static void ensureReturned(SolrQuery query, Iterable<String> fields) {
+    String fl = query.getFields();
+    if (fl == null) {
+      return;
+    }
+
+    Set<String> returned = Sets.newHashSet(Splitter.on(',').trimResults().omitEmptyStrings().split(fl));
+    if (returned.contains("*")) {
+      return;
+    }
+
+    for (String field : fields) {
+      if (returned.add(field)) {
+        query.addField(field);
+      }
+    }
+  }
+}
@@ -0,0 +1,47 @@
+package com.topsoft.search.support;
+
+import com.google.common.collect.ImmutableList;
+import com.topsoft.search.QueryPreProcessor;
+import org.apache.solr.client.solrj.SolrQuery;
+
+import java.util.List;
+
+import static com.google.common.base.Preconditions.*;
+
+/**
+ * {@link QueryPreProcessor} 的工具类
+ *
+ * @author wangyg
+ */
+public class QueryPreProcessors {
+
+  /**
+   * Cannot instantiate
+   */
+  private QueryPreProcessors() {
+  }
+
+  /**
+   * 将多个 {@link QueryPreProcessor} 组合为一个，按顺序依次执行，忽略其中的 {@code null}
+   */
+  public static QueryPreProcessor chain(QueryPreProcessor... preProcessors) {
+    checkNotNull(preProcessors, "preProcessors must not be null!");
+
+    ImmutableList.Builder<QueryPreProcessor> builder = ImmutableList.builder();
+    for (QueryPreProcessor preProcessor : preProcessors) {
+      if (preProcessor != null) {
+        builder.add(preProcessor);
+      }
+    }
+    final List<QueryPreProcessor> chain = builder.build();
+
+    return new QueryPreProcessor() {
+      @Override
+      public void prepare(SolrQuery query) {
+        for (QueryPreProcessor preProcessor : chain) {
+          preProcessor.prepare(query);
+        }
+      }
+    };
+  }
+}
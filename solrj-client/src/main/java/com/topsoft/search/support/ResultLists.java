@@ -0,0 +1,39 @@
+package com.topsoft.search.support;
+
+import com.google.common.base.Function;
+import com.google.common.collect.Lists;
+import com.topsoft.search.domain.UnmodifiableArrayList;
+
+import java.util.List;
+
+/**
+ * 转换查询结果列表的工具类
+ *
+ * @author wangyg
+ */
+class ResultLists {
+
+  /**
+   * Cannot instantiate
+   */
+  private ResultLists() {
+  }
+
+  /**
+   * 转换结果列表
+   * <p>默认一次性转换到大小恰好的数组中，每个元素只转换一次，转换后不再引用原列表，返回 {@link UnmodifiableArrayList}；
+   * lazy为 {@code true} 时返回 {@link Lists#transform(List, Function)} 视图，每次访问元素时重新转换，并一直引用原列表。
+   */
+  static <F, T> List<T> transform(List<F> fromList, Function<? super F, ? extends T> function, boolean lazy) {
+    if (lazy) {
+      return Lists.transform(fromList, function);
+    }
+
+    Object[] results = new Object[fromList.size()];
+    int i = 0;
+    for (F from : fromList) {
+      results[i++] = function.apply(from);
+    }
+    return UnmodifiableArrayList.wrap(results, results.length);
+  }
+}
@@ -0,0 +1,166 @@
+package com.topsoft.search.support;
+
+import com.google.common.collect.ImmutableList;
+import com.topsoft.search.QueryPreProcessor;
+import com.topsoft.search.ResultTransformer;
+import com.topsoft.search.SolrQueryProfileDecorator;
+import com.topsoft.search.domain.Pages;
+import com.topsoft.search.domain.SearchAfterPage;
+import com.topsoft.search.domain.SearchAfterRequest;
+import com.topsoft.search.domain.Sort;
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.client.solrj.util.ClientUtils;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import static com.google.common.base.Preconditions.*;
+
+/**
+ * <p>基于排序值的深度分页
+ * <p>不使用start偏移量，而是把上一页最后一条记录的排序值转换为范围过滤条件，例如按 {@code entNameLength asc, estDate desc, id asc}
+ * 排序时，过滤条件为:
+ * <pre>{@code
+ * {!cache=false}(*:* -entNameLength:[* TO v1]) OR (+entNameLength:v1 -estDate:[v2 TO *]) OR (+entNameLength:v1 +estDate:v2 +id:{v3 TO *])
+ * }</pre>
+ * solr每次只需收集一页的记录，翻到第N页与查询第一页的开销相同。过滤条件每页都不同，不放入solr的filterCache。
+ * <p>排序字段必须是单值字段，排序未包含唯一键时会自动追加唯一键升序排序以保证顺序唯一。
+ * 排序字段允许没有值，但schema中必须设置 {@code sortMissingLast="true"}，即无论升序降序没有值的记录都排在最后，
+ * 过滤条件按此处理没有值的记录，上一页最后一条记录没有值时记为 {@link SearchAfterRequest#MISSING_VALUE}。
+ *
+ * @author wangyg
+ */
+public class SearchAfterSolrQueryProfile<T> extends SolrQueryProfileDecorator<List<T>, SearchAfterPage<T>> {
+  public static final String DEFAULT_UNIQUE_KEY = "id";
+  private static final String NO_CACHE = "{!cache=false}";
+
+  private final SearchAfterRequest pageRequest;
+  private final List<Sort.OrderBy> orderBys;
+  private final List<String> sortFields;
+  private final String uniqueKey;
+
+  public SearchAfterSolrQueryProfile(ResultTransformer<List<T>> transformer, SearchAfterRequest pageRequest) {
+    this(null, transformer, pageRequest, DEFAULT_UNIQUE_KEY);
+  }
+
+  public SearchAfterSolrQueryProfile(QueryPreProcessor preProcessor, ResultTransformer<List<T>> transformer,
+                                     SearchAfterRequest pageRequest, String uniqueKey) {
+    super(preProcessor, transformer);
+    this.pageRequest = checkNotNull(pageRequest, "pageRequest must not be null!");
+    this.uniqueKey = checkNotNull(uniqueKey, "uniqueKey must not be null!");
+
+    Sort sort = pageRequest.getSort();
+    if (!sort.contain(uniqueKey)) {
+      sort = sort.concat(Sort.of(uniqueKey, Sort.Order.asc));
+    }
+    this.orderBys = ImmutableList.copyOf(sort);
+    ImmutableList.Builder<String> fields = ImmutableList.builder();
+    for (Sort.OrderBy orderBy : orderBys) {
+      fields.add(orderBy.getProperty());
+    }
+    this.sortFields = fields.build();
+
+    checkArgument(pageRequest.isFirst() || pageRequest.getLastSortValues().size() == orderBys.size(),
+        "The last sort values %s do not match the sort [%s]!", pageRequest.getLastSortValues(), sort);
+  }
+
+  @Override
+  protected void selfPrepare(SolrQuery query) {
+    query.setStart(0);
+    query.setRows(pageRequest.getPageSize());
+
+    for (Sort.OrderBy orderBy : orderBys) {
+      query.addSort(orderBy.getProperty(), orderBy.isAscending() ? SolrQuery.ORDER.asc : SolrQuery.ORDER.desc);
+    }
+
+    QueryFields.ensureReturned(query, sortFields);
+
+    if (!pageRequest.isFirst()) {
+      query.addFilterQuery(buildSearchAfterFilter(pageRequest.getLastSortValues()));
+    }
+  }
+
+  @Override
+  protected SearchAfterPage<T> selfTransform(QueryResponse response, List<T> prevResults) {
+    SolrDocumentList docs = response.getResults();
+    long total = pageRequest.isFirst() ? docs.getNumFound() : pageRequest.getTotal();
+
+    // 使用了过滤条件后numFound是剩余的记录数
+    SearchAfterRequest nextPageRequest = null;
+    if (docs.size() == pageRequest.getPageSize() && docs.getNumFound() > docs.size()) {
+      nextPageRequest = pageRequest.next(getSortValues(docs.get(docs.size() - 1)), total);
+    }
+
+    return Pages.wrap(prevResults, pageRequest, total, nextPageRequest);
+  }
+
+  private List<Object> getSortValues(SolrDocument doc) {
+    ImmutableList.Builder<Object> values = ImmutableList.builder();
+    for (Sort.OrderBy orderBy : orderBys) {
+      Object value = doc.getFirstValue(orderBy.getProperty());
+      checkState(value != null || !orderBy.getProperty().equals(uniqueKey), "The unique key '%s' is missing in document %s!",
+          uniqueKey, doc);
+      values.add(value == null ? SearchAfterRequest.MISSING_VALUE : value);
+    }
+    return values.build();
+  }
+
+  private String buildSearchAfterFilter(List<Object> lastSortValues) {
+    StringBuilder filter = new StringBuilder(NO_CACHE);
+    StringBuilder equalities = new StringBuilder();
+    // 纯否定的子查询不匹配任何记录，没有必须满足的条件时需要加上 *:*
+    boolean hasRequired = false;
+
+    for (int i = 0; i < orderBys.size(); i++) {
+      Sort.OrderBy orderBy = orderBys.get(i);
+      String property = orderBy.getProperty();
+      Object lastValue = lastSortValues.get(i);
+
+      if (lastValue == SearchAfterRequest.MISSING_VALUE) {
+        // 没有值的记录排在最后，之后只有同样没有值的记录
+        equalities.append('-').append(property).append(":[* TO *] ");
+        continue;
+      }
+
+      String value = toQueryValue(lastValue);
+      if (filter.length() > NO_CACHE.length()) {
+        filter.append(" OR ");
+      }
+      filter.append('(');
+      if (property.equals(uniqueKey)) {
+        // 唯一键每条记录都有值
+        filter.append(equalities);
+        filter.append('+').append(property).append(':');
+        filter.append(orderBy.isAscending() ? "{" + value + " TO *]" : "[* TO " + value + "}");
+      } else {
+        // 大于(降序时小于)上一个值或者没有值
+        filter.append(hasRequired ? "" : "*:* ").append(equalities);
+        filter.append('-').append(property).append(':');
+        filter.append(orderBy.isAscending() ? "[* TO " + value + "]" : "[" + value + " TO *]");
+      }
+      filter.append(')');
+
+      equalities.append('+').append(property).append(':').append(value).append(' ');
+      hasRequired = true;
+    }
+
+    return filter.toString();
+  }
+
+  private static String toQueryValue(Object value) {
+    String text = value instanceof Date ? formatDate((Date) value) : value.toString();
+    return ClientUtils.escapeQueryChars(text);
+  }
+
+  private static String formatDate(Date date) {
+    SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", Locale.US);
+    format.setTimeZone(TimeZone.getTimeZone("UTC"));
+    return format.format(date);
+  }
+}
@@ -0,0 +1,59 @@
+package com.topsoft.search.support;
+
+import com.google.common.collect.ImmutableList;
+import com.topsoft.search.domain.Sort;
+import org.apache.solr.common.SolrDocument;
+
+import java.util.Comparator;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.*;
+
+/**
+ * <p>按 {@link Sort} 比较 {@link SolrDocument} 的比较器，用于在客户端合并多个core已排好序的结果
+ * <p>数值类型按数值比较，其他类型要求实现 {@link Comparable}；缺少排序字段的文档排在最后。
+ *
+ * @author wangyg
+ */
+public class SolrDocumentComparator implements Comparator<SolrDocument> {
+  private final List<Sort.OrderBy> orderBys;
+
+  public SolrDocumentComparator(Sort sort) {
+    checkNotNull(sort, "sort must not be null!");
+    this.orderBys = ImmutableList.copyOf(sort);
+  }
+
+  @Override
+  public int compare(SolrDocument doc1, SolrDocument doc2) {
+    for (Sort.OrderBy orderBy : orderBys) {
+      Object value1 = doc1.getFirstValue(orderBy.getProperty());
+      Object value2 = doc2.getFirstValue(orderBy.getProperty());
+
+      int result;
+      if (value1 == null || value2 == null) {
+        // 无论升序降序，缺少排序字段的文档都排在最后
+        result = value1 == value2 ? 0 : (value1 == null ? 1 : -1);
+      } else {
+        result = compareValues(value1, value2);
+        if (!orderBy.isAscending()) {
+          result = -result;
+        }
+      }
+
+      if (result != 0) {
+        return result;
+      }
+    }
+    return 0;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static int compareValues(Object value1, Object value2) {
+    if (value1 instanceof Number && value2 instanceof Number && value1.getClass() != value2.getClass()) {
+      return Double.compare(((Number) value1).doubleValue(), ((Number) value2).doubleValue());
+    }
+
+    checkArgument(value1 instanceof Comparable, "The sort value %s is not comparable!", value1);
+    return ((Comparable<Object>) value1).compareTo(value2);
+  }
+}
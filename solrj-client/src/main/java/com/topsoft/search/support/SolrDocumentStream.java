@@ -0,0 +1,161 @@
+package com.topsoft.search.support;
+
+import org.apache.solr.client.solrj.StreamingResponseCallback;
+import org.apache.solr.common.SolrDocument;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.*;
+
+/**
+ * <p>以 {@link Iterator} 的形式逐条读取流式查询返回的 {@link SolrDocument}
+ * <p>查询线程通过 {@link #getCallback()} 将解析出的文档放入有界队列，队列满时查询线程等待，因此无论命中多少文档，
+ * 客户端内存中最多只保留队列长度的文档。
+ * <p>未读取完毕时应调用 {@link #close()}，以便结束查询线程。该对象只能由一个线程读取。
+ *
+ * @author wangyg
+ */
+public class SolrDocumentStream implements Iterator<SolrDocument>, Closeable {
+  public static final int DEFAULT_CAPACITY = 1024;
+
+  private static final SolrDocument END = new SolrDocument();
+  private static final long OFFER_TIMEOUT_MILLIS = 100;
+
+  private final BlockingQueue<SolrDocument> queue;
+  private final StreamingResponseCallback callback = new StreamingResponseCallback() {
+    @Override
+    public void streamSolrDocument(SolrDocument doc) {
+      put(doc);
+    }
+
+    @Override
+    public void streamDocListInfo(long numFound, long start, Float maxScore) {
+      SolrDocumentStream.this.numFound = numFound;
+    }
+  };
+  private volatile boolean closed;
+  private volatile Throwable failure;
+  private volatile long numFound = -1;
+  private SolrDocument next;
+  private boolean finished;
+
+  public SolrDocumentStream() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  public SolrDocumentStream(int capacity) {
+    checkArgument(capacity > 0, "capacity must greater than zero!");
+    this.queue = new ArrayBlockingQueue<SolrDocument>(capacity);
+  }
+
+  /**
+   * @return 供查询线程使用的回调对象
+   */
+  public StreamingResponseCallback getCallback() {
+    return callback;
+  }
+
+  /**
+   * 查询线程结束时调用
+   *
+   * @param failure 查询失败的原因，成功时为 {@code null}
+   */
+  public void finish(@Nullable Throwable failure) {
+    this.failure = failure;
+    try {
+      put(END);
+    } catch (CancellationException e) {
+      // 已被关闭，无须通知读取方
+    }
+  }
+
+  /**
+   * @return 符合查询条件的文档总数，查询响应的文档列表信息到达之前为-1
+   */
+  public long getNumFound() {
+    return numFound;
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (finished) {
+      return false;
+    }
+
+    if (next == null) {
+      next = take();
+    }
+
+    if (next == END) {
+      finished = true;
+      next = null;
+      if (failure != null) {
+        throw new RuntimeException(failure);
+      }
+      return false;
+    }
+
+    return true;
+  }
+
+  @Override
+  public SolrDocument next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+
+    SolrDocument doc = next;
+    next = null;
+    return doc;
+  }
+
+  @Override
+  public void remove() {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * 停止读取并丢弃已缓冲的文档，查询线程会在放入下一个文档时中止查询
+   */
+  @Override
+  public void close() {
+    closed = true;
+    finished = true;
+    queue.clear();
+  }
+
+  private SolrDocument take() {
+    if (closed) {
+      return END;
+    }
+
+    try {
+      return queue.take();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      close();
+      throw new RuntimeException(e);
+    }
+  }
+
+  private void put(SolrDocument doc) {
+    try {
+      while (!closed) {
+        if (queue.offer(doc, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+          return;
+        }
+      }
+      throw new CancellationException("The stream has been closed!");
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CancellationException("The stream has been interrupted!");
+    }
+  }
+}
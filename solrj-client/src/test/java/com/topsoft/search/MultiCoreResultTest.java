@@ -0,0 +1,41 @@
+package com.topsoft.search;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.collect.Maps.newLinkedHashMap;
+import static org.hamcrest.CoreMatchers.hasItem;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author wangyg
+ */
+public class MultiCoreResultTest {
+
+  @Test
+  public void testCollect() {
+    SettableFuture<List<Long>> slow = SettableFuture.create();
+    IllegalStateException error = new IllegalStateException("core is down");
+
+    Map<String, ListenableFuture<List<Long>>> futures = newLinkedHashMap();
+    futures.put("namestore", Futures.<List<Long>>immediateFuture(ImmutableList.of(1L, 2L)));
+    futures.put("keywords", slow);
+    futures.put("trademark", Futures.<List<Long>>immediateFailedFuture(error));
+
+    MultiCoreResult<List<Long>> result = MultiCoreResult.collect(futures, 10, TimeUnit.MILLISECONDS);
+
+    assertThat(result.isComplete(), is(false));
+    assertThat(result.getResults().get("namestore"), is((List<Long>) ImmutableList.of(1L, 2L)));
+    assertThat(result.getTimedOutCores(), hasItem("keywords"));
+    assertThat(slow.isCancelled(), is(true));
+    assertThat(result.getFailures().get("trademark"), is((Throwable) error));
+  }
+}
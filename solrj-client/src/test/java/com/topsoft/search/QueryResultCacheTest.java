@@ -0,0 +1,51 @@
+package com.topsoft.search;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author wangyg
+ */
+public class QueryResultCacheTest {
+
+  @Test
+  public void testNormalizedKey() {
+    QueryResultCache cache = QueryResultCache.builder().build();
+    final AtomicInteger loads = new AtomicInteger();
+    Callable<List<Long>> loader = new Callable<List<Long>>() {
+      @Override
+      public List<Long> call() throws Exception {
+        loads.incrementAndGet();
+        return ImmutableList.of(1L, 2L);
+      }
+    };
+
+    cache.get(QueryResultCache.key("namestore", "entTra:拓普  AND savePerTo:[NOW TO *]", "fl=id"), loader);
+    List<Long> ids = cache.get(QueryResultCache.key("namestore", " entTra:拓普 AND\tsavePerTo:[NOW TO *] ", "fl=id"), loader);
+
+    assertThat(ids, is((List<Long>) ImmutableList.of(1L, 2L)));
+    assertThat(loads.get(), is(1));
+  }
+
+  @Test
+  public void testInvalidateCore() {
+    QueryResultCache cache = QueryResultCache.builder().setMaximumWeight(100).build();
+    QueryResultCache.Key namestore = QueryResultCache.key("namestore", "entTra:拓普", "fl=id");
+    QueryResultCache.Key keywords = QueryResultCache.key("keywords", "banLetter:拓普", "fl=id");
+    cache.put(namestore, ImmutableList.of(1L));
+    cache.put(keywords, ImmutableList.of(2L));
+
+    cache.invalidator("namestore").run();
+
+    assertThat(cache.getIfPresent(namestore), nullValue());
+    assertThat(cache.<List<Long>>getIfPresent(keywords), is((List<Long>) ImmutableList.of(2L)));
+  }
+}
@@ -0,0 +1,147 @@
+package com.topsoft.search;
+
+import com.topsoft.search.support.GenericSolrQueryProfile;
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
+import org.apache.solr.common.util.NamedList;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+/**
+ * @author wangyg
+ */
+public class SolrMultiCoreQueryTemplateTest {
+  private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testCoalesceConcurrentQueries() throws Exception {
+    BlockingTemplate template = new BlockingTemplate(null);
+    Future<List<SolrDocument>> leader = executor.submit(template.find());
+    template.started.await();
+    Future<List<SolrDocument>> waiter = executor.submit(template.find());
+    template.joined.await();
+
+    template.release.countDown();
+
+    assertThat(leader.get().size(), is(1));
+    assertThat(waiter.get().size(), is(1));
+    assertThat(template.requests.get(), is(1));
+  }
+
+  @Test
+  public void testFailureReachesEveryWaiter() throws Exception {
+    IllegalStateException error = new IllegalStateException("core is down");
+    BlockingTemplate template = new BlockingTemplate(error);
+    Future<List<SolrDocument>> leader = executor.submit(template.find());
+    template.started.await();
+    Future<List<SolrDocument>> waiter = executor.submit(template.find());
+    template.joined.await();
+
+    template.release.countDown();
+
+    assertThat(failureOf(leader), sameInstance((Throwable) error));
+    assertThat(failureOf(waiter), sameInstance((Throwable) error));
+    assertThat(template.requests.get(), is(1));
+  }
+
+  @Test
+  public void testInterruptWaiter() throws Exception {
+    final BlockingTemplate template = new BlockingTemplate(null);
+    executor.submit(template.find());
+    template.started.await();
+
+    // 在开始等待之前设置中断状态，等待时立即响应中断
+    Future<List<SolrDocument>> waiter = executor.submit(new Callable<List<SolrDocument>>() {
+      @Override
+      public List<SolrDocument> call() throws Exception {
+        Thread.currentThread().interrupt();
+        return template.find().call();
+      }
+    });
+
+    assertThat(failureOf(waiter), instanceOf(CancellationException.class));
+    template.release.countDown();
+  }
+
+  private static Throwable failureOf(Future<?> future) throws InterruptedException {
+    try {
+      future.get();
+      fail();
+      return null;
+    } catch (ExecutionException e) {
+      return e.getCause();
+    }
+  }
+
+  private static class BlockingTemplate extends SolrMultiCoreQueryTemplate {
+    final CountDownLatch started = new CountDownLatch(1);
+    final CountDownLatch joined = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    final AtomicInteger requests = new AtomicInteger();
+    final RuntimeException error;
+
+    BlockingTemplate(RuntimeException error) {
+      super(builder("http://localhost:8983/solr").setCoalesceRequests(true));
+      this.error = error;
+    }
+
+    @Override
+    QueryResponse query(String core, SolrQuery solrQuery) {
+      requests.incrementAndGet();
+      started.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        throw new RuntimeException(e);
+      }
+      if (error != null) {
+        throw error;
+      }
+
+      SolrDocumentList docs = new SolrDocumentList();
+      docs.add(new SolrDocument());
+      NamedList<Object> values = new NamedList<Object>();
+      values.add("response", docs);
+      QueryResponse response = new QueryResponse();
+      response.setResponse(values);
+      return response;
+    }
+
+    @Override
+    void joinedInFlight(String key) {
+      joined.countDown();
+    }
+
+    Callable<List<SolrDocument>> find() {
+      return new Callable<List<SolrDocument>>() {
+        @Override
+        public List<SolrDocument> call() throws Exception {
+          return findFrom("namestore", "name:拓普", GenericSolrQueryProfile.DEFAULT);
+        }
+      };
+    }
+  }
+}
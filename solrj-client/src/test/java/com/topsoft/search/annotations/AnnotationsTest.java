@@ -42,4 +42,25 @@ public class AnnotationsTest {
   public void testGetDocumentIdName() {
     assertThat("id", is(Annotations.getDocumentIdName(AnnotationsTest.class)));
   }
+
+  @Test
+  public void testGetMetadata() throws IllegalAccessException {
+    DocumentMetadata metadata = Annotations.getMetadata(Enterprise.class);
+    Enterprise enterprise = new Enterprise();
+    enterprise.id = 12L;
+
+    assertThat(metadata.getDocumentIdName(), is("id"));
+    assertThat(metadata.getHighlightFields().indexOf("entName"), is(0));
+    assertThat(Annotations.getDocumentIdValue(Enterprise.class, enterprise), is("12"));
+  }
+
+  private static class Enterprise {
+    @Field
+    @DocumentId
+    Long id;
+
+    @Field
+    @Highlight
+    String entName;
+  }
 }
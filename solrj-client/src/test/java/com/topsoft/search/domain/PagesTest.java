@@ -0,0 +1,53 @@
+package com.topsoft.search.domain;
+
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author wangyg
+ */
+public class PagesTest {
+
+  @Test
+  public void testWrapImmutableList() {
+    List<String> content = ImmutableList.of("a", "b");
+    Page<String> page = Pages.wrap(content, new PageRequest(1, 2, null), 10);
+
+    assertThat(page.getContent(), sameInstance(content));
+  }
+
+  @Test
+  public void testWrapUnmodifiableArrayList() {
+    List<String> content = UnmodifiableArrayList.wrap(new Object[]{"a", null, "c"}, 2);
+    Page<String> page = Pages.wrap(content, new PageRequest(1, 2, null), 10);
+
+    assertThat(page.getContent(), sameInstance(content));
+    assertThat(page.getContent().size(), is(2));
+    assertThat(page.getContent().get(1), nullValue());
+  }
+
+  @Test
+  public void testWrapCopiesView() {
+    List<Integer> from = new ArrayList<Integer>(ImmutableList.of(1, 2));
+    List<String> view = Lists.transform(from, new Function<Integer, String>() {
+      @Override
+      public String apply(Integer input) {
+        return String.valueOf(input);
+      }
+    });
+    Page<String> page = Pages.wrap(view, new PageRequest(1, 2, null), 10);
+    from.set(0, 3);
+
+    assertThat(page.getContent(), is((List<String>) ImmutableList.of("1", "2")));
+  }
+}
@@ -0,0 +1,54 @@
+package com.topsoft.search.domain;
+
+import com.topsoft.search.domain.Sort.Order;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author wangyg
+ */
+public class SortTest {
+
+  @Test
+  public void testGetSortString() {
+    Sort sort = Sort.builder().orderBy("entNameLength", Order.asc).orderBy("estDate", Order.desc).build();
+    assertThat(sort.getSortString(), is("entNameLength asc,estDate desc"));
+    assertThat(sort, is(Sort.of("entNameLength", Order.asc, "estDate", Order.desc)));
+  }
+
+  @Test
+  public void testIntern() {
+    Sort sort = Sort.of("entNameLength", Order.asc, "estDate", Order.desc).intern();
+    assertThat(Sort.of("entNameLength", "asc", "estDate", "desc").intern(), sameInstance(sort));
+  }
+
+  @Test
+  public void testPageRequestBuilderSort() {
+    Sort sort = Sort.of("entNameLength", Order.asc).intern();
+    Pageable pageRequest = PageRequest.builder(1, 10).sort(sort).orderBy("estDate", Order.desc).build();
+    assertThat(pageRequest.getSort().getSortString(), is("entNameLength asc,estDate desc"));
+    assertThat(PageRequest.builder(1, 10).sort(sort).build().getSort(), sameInstance(sort));
+  }
+
+  @Test
+  public void testSerialization() throws Exception {
+    Sort sort = Sort.of("entNameLength", Order.asc, "estDate", Order.desc);
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    ObjectOutputStream out = new ObjectOutputStream(bytes);
+    out.writeObject(sort);
+    out.close();
+
+    Sort copy = (Sort) new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject();
+    assertThat(copy.getSortString(), is("entNameLength asc,estDate desc"));
+    assertThat(copy.hashCode(), is(sort.hashCode()));
+    assertThat(copy, is(sort));
+  }
+}
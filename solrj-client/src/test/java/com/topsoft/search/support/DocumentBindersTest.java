@@ -0,0 +1,101 @@
+package com.topsoft.search.support;
+
+import com.google.common.collect.ImmutableList;
+import org.apache.solr.client.solrj.beans.Field;
+import org.apache.solr.common.SolrDocument;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author wangyg
+ */
+public class DocumentBindersTest {
+
+  @Test
+  public void testBind() {
+    SolrDocument doc = new SolrDocument();
+    doc.setField("id", 1L);
+    doc.setField("entName", "拓普网络");
+    doc.addField("tags", "a");
+    doc.addField("tags", "b");
+    doc.setField("aliases", "c");
+    doc.setField("uniScid", "91110000");
+
+    Enterprise bean = DocumentBinders.forClass(Enterprise.class).bind(doc);
+
+    assertThat(bean.id, is(1L));
+    assertThat(bean.name, is("拓普网络"));
+    assertThat(bean.tags, is((List<String>) ImmutableList.of("a", "b")));
+    assertThat(bean.aliases, is(new String[]{"c"}));
+    assertThat(bean.creditCode, is("91110000"));
+    assertThat(bean.address, nullValue());
+  }
+
+  @Test
+  public void testDynamicFieldFallback() {
+    SolrDocument doc = new SolrDocument();
+    doc.setField("id", 2L);
+    doc.setField("name_s", "拓普");
+
+    Dynamic bean = DocumentBinders.forClass(Dynamic.class).bind(doc);
+
+    assertThat(bean.id, is(2L));
+    assertThat(bean.names.get("name_s"), is("拓普"));
+  }
+
+  @Test
+  public void testBindBinary() {
+    SolrDocument doc = new SolrDocument();
+    doc.setField("id", 3L);
+    doc.setField("data", new byte[]{1, 2});
+    doc.setField("buffer", new byte[]{3, 4});
+
+    Binary bean = DocumentBinders.forClass(Binary.class).bind(doc);
+
+    assertThat(bean.data, is(new byte[]{1, 2}));
+    assertThat(bean.buffer, is(ByteBuffer.wrap(new byte[]{3, 4})));
+  }
+
+  public static class Base {
+    @Field
+    Long id;
+  }
+
+  public static class Enterprise extends Base {
+    @Field("entName")
+    String name;
+    @Field
+    List<String> tags;
+    @Field
+    String[] aliases;
+    @Field
+    String address;
+    String creditCode;
+
+    @Field("uniScid")
+    public void setCreditCode(String creditCode) {
+      this.creditCode = creditCode;
+    }
+  }
+
+  public static class Binary extends Base {
+    @Field
+    byte[] data;
+    @Field
+    ByteBuffer buffer;
+  }
+
+  public static class Dynamic {
+    @Field
+    Long id;
+    @Field("*_s")
+    Map<String, String> names;
+  }
+}
@@ -0,0 +1,51 @@
+package com.topsoft.search.support;
+
+import com.topsoft.search.annotations.DocumentId;
+import com.topsoft.search.annotations.Highlight;
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.beans.Field;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author wangyg
+ */
+public class FieldListQueryPreProcessorTest {
+
+  @Test
+  public void testForClass() {
+    SolrQuery query = new SolrQuery("*:*");
+    FieldListQueryPreProcessor.forClass(Enterprise.class).prepare(query);
+
+    assertThat(query.getFields(), is("entName,regNo,id"));
+  }
+
+  @Test
+  public void testAppendToExistingFields() {
+    SolrQuery query = new SolrQuery("*:*");
+    query.setFields("id", "estDate");
+    new FieldListQueryPreProcessor("id", "entName").prepare(query);
+
+    assertThat(query.getFields(), is("id,estDate,entName"));
+  }
+
+  public static class Base {
+    @Field
+    @DocumentId
+    Long id;
+  }
+
+  public static class Enterprise extends Base {
+    @Field
+    @Highlight
+    String entName;
+    String regNo;
+
+    @Field
+    public void setRegNo(String regNo) {
+      this.regNo = regNo;
+    }
+  }
+}
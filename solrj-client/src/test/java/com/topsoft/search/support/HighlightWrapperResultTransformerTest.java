@@ -0,0 +1,116 @@
+package com.topsoft.search.support;
+
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableList;
+import com.topsoft.search.annotations.DocumentId;
+import com.topsoft.search.annotations.Highlight;
+import com.topsoft.search.domain.HighlightFields;
+import com.topsoft.search.domain.HighlightWrapper;
+import org.apache.solr.client.solrj.beans.Field;
+import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
+import org.apache.solr.common.util.NamedList;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author wangyg
+ */
+public class HighlightWrapperResultTransformerTest {
+  private static final Function<SolrDocument, Long> ID = new Function<SolrDocument, Long>() {
+    @Override
+    public Long apply(SolrDocument input) {
+      return (Long) input.getFieldValue("id");
+    }
+  };
+
+  @Test
+  public void testKnownFields() {
+    QueryResponse response = response(
+        highlighting(2L, "entName", "<em>拓普</em>网络", "<em>拓普</em>科技"),
+        highlighting(1L, "regNo", "<em>4103</em>02"));
+
+    HighlightWrapperResultTransformer<Long> transformer =
+        new HighlightWrapperResultTransformer<Long>("id", ID, HighlightFields.of("entName", "regNo"), false);
+    List<HighlightWrapper<Long>> results = transformer.transform(response);
+
+    assertThat(results.get(0).getBean(), is(1L));
+    assertThat(results.get(0).getHighlight(0), nullValue());
+    assertThat(results.get(0).getHighlight(1), is("<em>4103</em>02"));
+    assertThat(results.get(1).getHighlight(0), is("<em>拓普</em>网络, <em>拓普</em>科技"));
+    assertThat(results.get(1).getHighlights().containsKey("regNo"), is(false));
+  }
+
+  @Test
+  public void testCollectedFields() {
+    QueryResponse response = response(
+        highlighting(1L, "regNo", "<em>4103</em>02"),
+        highlighting(2L, "entName", "<em>拓普</em>网络"));
+
+    List<HighlightWrapper<Long>> results = new HighlightWrapperResultTransformer<Long>("id", ID).transform(response);
+
+    assertThat(results.get(0).getFields().getNames(), is((List<String>) ImmutableList.of("regNo", "entName")));
+    assertThat(results.get(0).getHighlights().size(), is(1));
+    assertThat(results.get(1).getHighlights().get("entName"), is("<em>拓普</em>网络"));
+  }
+
+  @Test
+  public void testAnnotatedClassUsesResponseFields() {
+    QueryResponse response = response(
+        highlighting(1L, "regNo", "<em>4103</em>02"),
+        highlighting(2L, "entName", "<em>拓普</em>网络"));
+
+    for (boolean lazy : new boolean[]{false, true}) {
+      List<HighlightWrapper<Enterprise>> results =
+          new HighlightWrapperResultTransformer<Enterprise>(Enterprise.class, lazy).transform(response);
+
+      assertThat(results.get(0).getBean().id, is(1L));
+      assertThat(results.get(0).getHighlights().get("regNo"), is("<em>4103</em>02"));
+      assertThat(results.get(1).getHighlights().get("entName"), is("<em>拓普</em>网络"));
+    }
+  }
+
+  private static NamedList<Object> highlighting(long id, String field, String... snippets) {
+    NamedList<Object> fields = new NamedList<Object>();
+    fields.add(field, ImmutableList.copyOf(snippets));
+    NamedList<Object> doc = new NamedList<Object>();
+    doc.add(String.valueOf(id), fields);
+    return doc;
+  }
+
+  private static QueryResponse response(NamedList<Object>... docHighlightings) {
+    SolrDocumentList list = new SolrDocumentList();
+    NamedList<Object> highlighting = new NamedList<Object>();
+    for (long id = 1; id <= docHighlightings.length; id++) {
+      SolrDocument doc = new SolrDocument();
+      doc.setField("id", id);
+      list.add(doc);
+    }
+    for (NamedList<Object> docHighlighting : docHighlightings) {
+      highlighting.addAll(docHighlighting);
+    }
+    list.setNumFound(list.size());
+
+    NamedList<Object> values = new NamedList<Object>();
+    values.add("response", list);
+    values.add("highlighting", highlighting);
+    QueryResponse response = new QueryResponse();
+    response.setResponse(values);
+    return response;
+  }
+
+  public static class Enterprise {
+    @DocumentId
+    @Field
+    Long id;
+    @Highlight
+    @Field
+    String entName;
+  }
+}
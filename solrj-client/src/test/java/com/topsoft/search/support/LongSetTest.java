@@ -0,0 +1,46 @@
+package com.topsoft.search.support;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author wangyg
+ */
+public class LongSetTest {
+
+  @Test
+  public void testAddAndContains() {
+    LongSet set = new LongSet(2);
+    for (long i = 0; i < 1000; i++) {
+      assertThat(set.add(i * 7), is(true));
+    }
+    assertThat(set.add(0), is(false));
+    assertThat(set.add(7), is(false));
+
+    assertThat(set.size(), is(1000));
+    assertThat(set.contains(0), is(true));
+    assertThat(set.contains(6993), is(true));
+    assertThat(set.contains(6994), is(false));
+    assertThat(set.contains(-7), is(false));
+  }
+
+  @Test
+  public void testCopyOfList() {
+    LongList list = new LongList(1);
+    list.add(3);
+    list.add(0);
+    list.add(Long.MAX_VALUE);
+    list.add(3);
+
+    long[] values = LongSet.copyOf(list).toArray();
+    Arrays.sort(values);
+
+    assertThat(list.size(), is(4));
+    assertThat(list.toString(), is("[3, 0, " + Long.MAX_VALUE + ", 3]"));
+    assertThat(values, is(new long[]{0, 3, Long.MAX_VALUE}));
+  }
+}
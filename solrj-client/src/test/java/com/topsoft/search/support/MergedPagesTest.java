@@ -0,0 +1,68 @@
+package com.topsoft.search.support;
+
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableList;
+import com.topsoft.search.domain.Page;
+import com.topsoft.search.domain.PageRequest;
+import com.topsoft.search.domain.Sort;
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author wangyg
+ */
+public class MergedPagesTest {
+  private static final Function<SolrDocument, String> ID = new Function<SolrDocument, String>() {
+    @Override
+    public String apply(SolrDocument input) {
+      return (String) input.getFieldValue("id");
+    }
+  };
+
+  @Test
+  public void testPreProcessor() {
+    SolrQuery query = new SolrQuery("*:*");
+    query.setFields("id");
+    MergedPages.preProcessor(new PageRequest(3, 10, Sort.of("estDate", "desc"))).prepare(query);
+
+    assertThat(query.getStart(), is(0));
+    assertThat(query.getRows(), is(30));
+    assertThat(query.getSortField(), is("estDate desc"));
+    assertThat(query.getFields(), is("id,estDate"));
+  }
+
+  @Test
+  public void testMerge() {
+    List<SolrDocumentList> results = ImmutableList.of(
+        docs(10, doc("a1", 9), doc("a2", 7), doc("a3", 3)),
+        docs(5, doc("b1", 8), doc("b2", 6), doc("b3", 5)));
+
+    Page<String> page = MergedPages.merge(results, new PageRequest(2, 2, Sort.of("estDate", "desc")), ID);
+
+    assertThat(page.getTotalElements(), is(15L));
+    assertThat(page.getContent(), is((List<String>) ImmutableList.of("a2", "b2")));
+  }
+
+  private static SolrDocument doc(String id, long estDate) {
+    SolrDocument doc = new SolrDocument();
+    doc.setField("id", id);
+    doc.setField("estDate", estDate);
+    return doc;
+  }
+
+  private static SolrDocumentList docs(long numFound, SolrDocument... docs) {
+    SolrDocumentList list = new SolrDocumentList();
+    list.setNumFound(numFound);
+    for (SolrDocument doc : docs) {
+      list.add(doc);
+    }
+    return list;
+  }
+}
@@ -0,0 +1,123 @@
+package com.topsoft.search.support;
+
+import com.google.common.collect.ImmutableList;
+import com.topsoft.search.ResultTransformer;
+import com.topsoft.search.domain.SearchAfterPage;
+import com.topsoft.search.domain.SearchAfterRequest;
+import com.topsoft.search.domain.Sort;
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
+import org.apache.solr.common.util.NamedList;
+import org.junit.Test;
+
+import java.util.Date;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author wangyg
+ */
+public class SearchAfterSolrQueryProfileTest {
+  private static final Sort SORT = Sort.of("entNameLength", "asc", "estDate", "desc");
+
+  @Test
+  public void testFirstPage() {
+    SearchAfterRequest first = SearchAfterRequest.first(2, SORT);
+    SearchAfterSolrQueryProfile<SolrDocument> profile =
+        new SearchAfterSolrQueryProfile<SolrDocument>(ResultTransformer.DEFAULT, first);
+
+    SolrQuery query = new SolrQuery("*:*");
+    profile.prepare(query);
+
+    assertThat(query.getStart(), is(0));
+    assertThat(query.getRows(), is(2));
+    assertThat(query.getSortField(), is("entNameLength asc,estDate desc,id asc"));
+    assertThat(query.getFilterQueries(), nullValue());
+
+    SearchAfterPage<SolrDocument> page = profile.transform(response(5, doc(4, 20130101L, "a"), doc(4, 20120101L, "b")));
+
+    assertThat(page.getTotalElements(), is(5L));
+    assertThat(page.getNumber(), is(1));
+    SearchAfterRequest next = page.nextPageRequest();
+    assertThat(next, notNullValue());
+    assertThat(next.getPageNumber(), is(2));
+    assertThat(next.getLastSortValues(), is((Object) ImmutableList.<Object>of(4, 20120101L, "b")));
+  }
+
+  @Test
+  public void testNextPage() {
+    SearchAfterRequest next = SearchAfterRequest.first(2, SORT).next(ImmutableList.of(4, 20120101L, "b"), 5);
+    SearchAfterSolrQueryProfile<SolrDocument> profile =
+        new SearchAfterSolrQueryProfile<SolrDocument>(ResultTransformer.DEFAULT, next);
+
+    SolrQuery query = new SolrQuery("*:*");
+    profile.prepare(query);
+
+    assertThat(query.getStart(), is(0));
+    assertThat(query.getFilterQueries()[0], is("{!cache=false}(*:* -entNameLength:[* TO 4]) " +
+        "OR (+entNameLength:4 -estDate:[20120101 TO *]) OR (+entNameLength:4 +estDate:20120101 +id:{b TO *])"));
+
+    SearchAfterPage<SolrDocument> page = profile.transform(response(1, doc(5, 20100101L, "c")));
+
+    assertThat(page.getTotalElements(), is(5L));
+    assertThat(page.getNumber(), is(2));
+    assertThat(page.nextPageRequest(), nullValue());
+    assertThat(page.hasNextPage(), is(false));
+  }
+
+  @Test
+  public void testMissingSortValue() {
+    SearchAfterRequest first = SearchAfterRequest.first(1, SORT);
+    SearchAfterSolrQueryProfile<SolrDocument> profile =
+        new SearchAfterSolrQueryProfile<SolrDocument>(ResultTransformer.DEFAULT, first);
+    SolrDocument doc = new SolrDocument();
+    doc.setField("entNameLength", 4);
+    doc.setField("id", "b");
+
+    SearchAfterRequest next = profile.transform(response(5, doc)).nextPageRequest();
+    assertThat(next.getLastSortValues(), is((Object) ImmutableList.<Object>of(4, SearchAfterRequest.MISSING_VALUE, "b")));
+
+    SolrQuery query = new SolrQuery("*:*");
+    new SearchAfterSolrQueryProfile<SolrDocument>(ResultTransformer.DEFAULT, next).prepare(query);
+    assertThat(query.getFilterQueries()[0], is("{!cache=false}(*:* -entNameLength:[* TO 4]) " +
+        "OR (+entNameLength:4 -estDate:[* TO *] +id:{b TO *])"));
+  }
+
+  @Test
+  public void testDateSortValue() {
+    SearchAfterRequest next = SearchAfterRequest.first(2, Sort.of("estDate", "desc"))
+        .next(ImmutableList.of(new Date(0), "b"), 5);
+    SolrQuery query = new SolrQuery("*:*");
+    new SearchAfterSolrQueryProfile<SolrDocument>(ResultTransformer.DEFAULT, next).prepare(query);
+
+    assertThat(query.getFilterQueries()[0], is("{!cache=false}(*:* -estDate:[1970\\-01\\-01T00\\:00\\:00.000Z TO *]) " +
+        "OR (+estDate:1970\\-01\\-01T00\\:00\\:00.000Z +id:{b TO *])"));
+  }
+
+  private static SolrDocument doc(int entNameLength, long estDate, String id) {
+    SolrDocument doc = new SolrDocument();
+    doc.setField("entNameLength", entNameLength);
+    doc.setField("estDate", estDate);
+    doc.setField("id", id);
+    return doc;
+  }
+
+  private static QueryResponse response(long numFound, SolrDocument... docs) {
+    SolrDocumentList list = new SolrDocumentList();
+    list.setNumFound(numFound);
+    for (SolrDocument doc : docs) {
+      list.add(doc);
+    }
+
+    NamedList<Object> values = new NamedList<Object>();
+    values.add("response", list);
+    QueryResponse response = new QueryResponse();
+    response.setResponse(values);
+    return response;
+  }
+}
@@ -0,0 +1,69 @@
+package com.topsoft.search.support;
+
+import org.apache.solr.common.SolrDocument;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author wangyg
+ */
+public class SolrDocumentStreamTest {
+
+  @Test
+  public void testReadAll() throws Exception {
+    final SolrDocumentStream stream = new SolrDocumentStream(1);
+    Thread producer = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        stream.getCallback().streamDocListInfo(3, 0, null);
+        for (int i = 0; i < 3; i++) {
+          SolrDocument doc = new SolrDocument();
+          doc.setField("id", i);
+          stream.getCallback().streamSolrDocument(doc);
+        }
+        stream.finish(null);
+      }
+    });
+    producer.start();
+
+    int count = 0;
+    while (stream.hasNext()) {
+      assertThat(stream.next().getFieldValue("id"), is((Object) count));
+      count++;
+    }
+
+    assertThat(count, is(3));
+    assertThat(stream.getNumFound(), is(3L));
+    producer.join(1000);
+  }
+
+  @Test
+  public void testCloseReleasesProducer() throws Exception {
+    final SolrDocumentStream stream = new SolrDocumentStream(1);
+    final CountDownLatch done = new CountDownLatch(1);
+    Thread producer = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          while (true) {
+            stream.getCallback().streamSolrDocument(new SolrDocument());
+          }
+        } catch (RuntimeException e) {
+          done.countDown();
+        }
+      }
+    });
+    producer.start();
+
+    assertThat(stream.hasNext(), is(true));
+    stream.close();
+
+    assertThat(done.await(1, TimeUnit.SECONDS), is(true));
+    assertThat(stream.hasNext(), is(false));
+  }
+}